@@ -0,0 +1,115 @@
+package com.coveo.feign.benchmark;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coveo.feign.ErrorCodeAndMessage;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ServiceExceptionErrorDecoder;
+import com.coveo.feign.metrics.MicrometerDecodeListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of a single {@link com.coveo.feign.ReflectionErrorDecoder} shared by 1, 8 and 64
+ * threads, like a Feign client called from a whole request thread pool. The throughput should grow
+ * with the threads up to the number of cores since the decoding doesn't take any lock. The grouped
+ * benchmark mixes known and unknown error codes on a decoder recording Micrometer metrics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentDecodeBenchmark {
+  private ServiceExceptionErrorDecoder errorDecoder;
+  private ServiceExceptionErrorDecoder measuredErrorDecoder;
+  private byte[] knownErrorCodeBody;
+  private byte[] unknownErrorCodeBody;
+
+  @Setup
+  public void setup() throws Exception {
+    errorDecoder = new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    measuredErrorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setDecodeListener(new MicrometerDecodeListener(meterRegistry));
+          }
+        };
+
+    knownErrorCodeBody =
+        toJson(ExceptionWithEmptyConstructorException.ERROR_CODE, "known error code");
+    unknownErrorCodeBody = toJson(UUID.randomUUID().toString(), "unknown error code");
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Exception decodeWithOneThread() {
+    return errorDecoder.decode("", getResponseWithBody(knownErrorCodeBody));
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Exception decodeWithEightThreads() {
+    return errorDecoder.decode("", getResponseWithBody(knownErrorCodeBody));
+  }
+
+  @Benchmark
+  @Threads(64)
+  public Exception decodeWithSixtyFourThreads() {
+    return errorDecoder.decode("", getResponseWithBody(knownErrorCodeBody));
+  }
+
+  @Benchmark
+  @Group("mixedErrorCodes")
+  @GroupThreads(4)
+  public Exception decodeKnownErrorCode() {
+    return measuredErrorDecoder.decode("", getResponseWithBody(knownErrorCodeBody));
+  }
+
+  @Benchmark
+  @Group("mixedErrorCodes")
+  @GroupThreads(4)
+  public Exception decodeUnknownErrorCode() {
+    return measuredErrorDecoder.decode("", getResponseWithBody(unknownErrorCodeBody));
+  }
+
+  private static byte[] toJson(String errorCode, String message) throws Exception {
+    return new ObjectMapper()
+        .writeValueAsBytes(new ErrorCodeAndMessage().withErrorCode(errorCode).withMessage(message));
+  }
+
+  // Each call gets its own response, as the body of a response can only be read once
+  private static Response getResponseWithBody(byte[] body) {
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(body)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+}
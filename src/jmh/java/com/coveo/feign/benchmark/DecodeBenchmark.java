@@ -0,0 +1,149 @@
+package com.coveo.feign.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coveo.feign.ErrorCodeAndMessage;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ServiceExceptionErrorDecoder;
+import com.coveo.feign.extractor.ErrorKeyCache;
+import com.coveo.feign.filter.ErrorStormShortCircuit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+/**
+ * Steady state cost of {@link com.coveo.feign.ReflectionErrorDecoder#decode(String, Response)}.
+ * Run with {@code -prof gc} to get the allocation rate per decoded response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+  private static final int LARGE_BODY_SIZE = 256 * 1024;
+
+  private ServiceExceptionErrorDecoder errorDecoder;
+  private ServiceExceptionErrorDecoder streamingErrorDecoder;
+  private ServiceExceptionErrorDecoder cachingErrorDecoder;
+  private ServiceExceptionErrorDecoder shortCircuitedErrorDecoder;
+  private Response knownErrorCodeResponse;
+  private Response unknownErrorCodeResponse;
+  private Response serverErrorResponse;
+  private Response emptyBodyResponse;
+  private Response largeBodyResponse;
+
+  @Setup
+  public void setup() throws Exception {
+    errorDecoder = new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class);
+    streamingErrorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setStreamingErrorKeyExtraction("errorCode", "message");
+          }
+        };
+    cachingErrorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorKeyCache(new ErrorKeyCache(100, Duration.ofMinutes(1)));
+          }
+        };
+    shortCircuitedErrorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorStormShortCircuit(new ErrorStormShortCircuit(1, 1, Duration.ofHours(1)));
+          }
+        };
+
+    knownErrorCodeResponse =
+        getResponseWithBody(
+            toJson(ExceptionWithEmptyConstructorException.ERROR_CODE, "known error code"));
+    unknownErrorCodeResponse =
+        getResponseWithBody(toJson(UUID.randomUUID().toString(), "unknown error code"));
+    serverErrorResponse =
+        getResponseWithBody(toJson(UUID.randomUUID().toString(), "server error"))
+            .toBuilder()
+            .status(503)
+            .build();
+    emptyBodyResponse = getResponseWithBody(new byte[0]);
+    largeBodyResponse =
+        getResponseWithBody(
+            toJson(ExceptionWithEmptyConstructorException.ERROR_CODE, "x".repeat(LARGE_BODY_SIZE)));
+    // A single unknown error code is enough to short-circuit the method key for the whole run
+    shortCircuitedErrorDecoder.decode("", serverErrorResponse);
+  }
+
+  @Benchmark
+  public Exception decodeKnownErrorCode() {
+    return errorDecoder.decode("", knownErrorCodeResponse);
+  }
+
+  @Benchmark
+  public Exception decodeUnknownErrorCode() {
+    return errorDecoder.decode("", unknownErrorCodeResponse);
+  }
+
+  @Benchmark
+  public Exception decodeEmptyBody() {
+    return errorDecoder.decode("", emptyBodyResponse);
+  }
+
+  @Benchmark
+  public Exception decodeLargeBody() {
+    return errorDecoder.decode("", largeBodyResponse);
+  }
+
+  @Benchmark
+  public Exception decodeKnownErrorCodeWithStreaming() {
+    return streamingErrorDecoder.decode("", knownErrorCodeResponse);
+  }
+
+  @Benchmark
+  public Exception decodeLargeBodyWithStreaming() {
+    return streamingErrorDecoder.decode("", largeBodyResponse);
+  }
+
+  @Benchmark
+  public Exception decodeKnownErrorCodeWithErrorKeyCache() {
+    return cachingErrorDecoder.decode("", knownErrorCodeResponse);
+  }
+
+  @Benchmark
+  public Exception decodeShortCircuitedServerError() {
+    return shortCircuitedErrorDecoder.decode("", serverErrorResponse);
+  }
+
+  private static byte[] toJson(String errorCode, String message) throws Exception {
+    return new ObjectMapper()
+        .writeValueAsBytes(new ErrorCodeAndMessage().withErrorCode(errorCode).withMessage(message));
+  }
+
+  private static Response getResponseWithBody(byte[] body) {
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(body)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+}
@@ -0,0 +1,81 @@
+package com.coveo.feign.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coveo.feign.ErrorCodeTable;
+
+/**
+ * Lookup of an error code in the {@link ErrorCodeTable} of a decoder, compared to the previous
+ * lookup in the maps of the declared exceptions and of the runtime exceptions. The runtime
+ * exceptions key is found in the second map, the worst case of the previous lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorCodeLookupBenchmark {
+  @Param({"10", "1000"})
+  private int errorCodeCount;
+
+  private Map<String, Object> exceptionsThrown;
+  private Map<String, Object> runtimeExceptionsThrown;
+  private ErrorCodeTable<Object> errorCodeTable;
+  private char[] runtimeExceptionKeyCharacters;
+
+  @Setup
+  public void setup() {
+    exceptionsThrown = new HashMap<>();
+    runtimeExceptionsThrown = new HashMap<>();
+    for (int i = 0; i < errorCodeCount; i++) {
+      exceptionsThrown.put("DECLARED_ERROR_CODE_" + i, new Object());
+      runtimeExceptionsThrown.put("RUNTIME_ERROR_CODE_" + i, new Object());
+    }
+    Map<String, Object> allExceptionsThrown = new HashMap<>(runtimeExceptionsThrown);
+    allExceptionsThrown.putAll(exceptionsThrown);
+    errorCodeTable = new ErrorCodeTable<>(allExceptionsThrown);
+
+    String runtimeExceptionKey = ("RUNTIME_ERROR_CODE_" + errorCodeCount / 2);
+    runtimeExceptionKeyCharacters = runtimeExceptionKey.toCharArray();
+  }
+
+  // A new String for each lookup, like a key read from a response, whose hash isn't cached yet
+  @Benchmark
+  public Object lookupInMaps() {
+    String key = new String(runtimeExceptionKeyCharacters);
+    if (exceptionsThrown.containsKey(key)) {
+      return exceptionsThrown.get(key);
+    }
+    if (runtimeExceptionsThrown.containsKey(key)) {
+      return runtimeExceptionsThrown.get(key);
+    }
+    return null;
+  }
+
+  @Benchmark
+  public Object lookupInTable() {
+    return errorCodeTable.get(new String(runtimeExceptionKeyCharacters));
+  }
+
+  @Benchmark
+  public Object lookupInTableFromCharacters() {
+    return errorCodeTable.get(
+        errorCodeTable.findKey(
+            runtimeExceptionKeyCharacters, 0, runtimeExceptionKeyCharacters.length));
+  }
+}
@@ -0,0 +1,109 @@
+package com.coveo.feign.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.coveo.feign.BaseServiceException;
+import com.coveo.feign.InitializationMode;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithInheritedExceptions;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ServiceExceptionErrorDecoder;
+import com.coveo.feign.ThrownExceptionRegistry;
+import com.coveo.feign.hierarchy.BytecodeClassHierarchySupplier;
+import com.coveo.feign.hierarchy.CachedSpringClassHierarchySupplier;
+import com.coveo.feign.hierarchy.EmptyClassHierarchySupplier;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplier;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.IndexedBaseException;
+import com.coveo.feign.hierarchy.SpringClassHierarchySupplier;
+
+/**
+ * Startup cost of a {@link com.coveo.feign.ReflectionErrorDecoder}, i.e. the method scanning, the
+ * classpath scanning and the exception instantiation done for every Feign client. The {@link
+ * ThrownExceptionRegistry} is cleared by the {@code initialize} benchmarks so every invocation
+ * resolves its exceptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InitializationBenchmark {
+  private static final String BASE_PACKAGE = "com.coveo.feign";
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithPlainExceptions() {
+    ThrownExceptionRegistry.clear();
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithPlainExceptions.class, new EmptyClassHierarchySupplier());
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithRegisteredPlainExceptions() {
+    // The exceptions are resolved by the first invocation, then found in the registry
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithPlainExceptions.class, new EmptyClassHierarchySupplier());
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithCachedSpringClassHierarchySupplier() {
+    ThrownExceptionRegistry.clear();
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithInheritedExceptions.class,
+        new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE));
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithBytecodeClassHierarchySupplier() {
+    ThrownExceptionRegistry.clear();
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithInheritedExceptions.class,
+        new BytecodeClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE));
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithUncachedBytecodeClassHierarchySupplier() {
+    ThrownExceptionRegistry.clear();
+    BytecodeClassHierarchySupplier.invalidateAll();
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithInheritedExceptions.class,
+        new BytecodeClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE));
+  }
+
+  @Benchmark
+  public Set<Class<?>> readUncachedIndexedClassHierarchy() {
+    IndexedClassHierarchySupplier.invalidateAll();
+    return new IndexedClassHierarchySupplier(IndexedBaseException.class)
+        .getSubClasses(IndexedBaseException.class, BASE_PACKAGE);
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder constructWithLazyInitialization() {
+    // The default class hierarchy supplier, whose scan must not be done by the constructor
+    CachedSpringClassHierarchySupplier.invalidateAll();
+    BytecodeClassHierarchySupplier.invalidateAll();
+    return new ServiceExceptionErrorDecoder(TestApiClassWithInheritedExceptions.class) {
+      @Override
+      protected InitializationMode getInitializationMode() {
+        return InitializationMode.LAZY;
+      }
+    };
+  }
+
+  @Benchmark
+  public ServiceExceptionErrorDecoder initializeWithSpringClassHierarchySupplier() {
+    ThrownExceptionRegistry.clear();
+    return new ServiceExceptionErrorDecoder(
+        TestApiClassWithInheritedExceptions.class, new SpringClassHierarchySupplier());
+  }
+}
@@ -0,0 +1,96 @@
+package com.coveo.feign;
+
+import java.util.Map;
+
+import com.coveo.feign.extractor.ErrorKeyTable;
+
+/**
+ * An immutable open addressing table from the error codes to their value, built once when a {@link
+ * ReflectionErrorDecoder} is initialized. It is kept at most half full and stores the hash of each
+ * key, so a lookup hashes the key once and almost always compares a single key. The codes can also
+ * be looked up from characters, with the same hash as {@link String#hashCode()}.
+ */
+public final class ErrorCodeTable<V> implements ErrorKeyTable {
+  private final String[] keys;
+  private final int[] hashes;
+  private final Object[] values;
+  private final int mask;
+  private final int size;
+
+  public ErrorCodeTable(Map<String, ? extends V> entries) {
+    int capacity = 2;
+    while (capacity < entries.size() * 2) {
+      capacity <<= 1;
+    }
+    keys = new String[capacity];
+    hashes = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    size = entries.size();
+
+    for (Map.Entry<String, ? extends V> entry : entries.entrySet()) {
+      int hash = entry.getKey().hashCode();
+      int index = spread(hash) & mask;
+      while (keys[index] != null) {
+        index = (index + 1) & mask;
+      }
+      keys[index] = entry.getKey();
+      hashes[index] = hash;
+      values[index] = entry.getValue();
+    }
+  }
+
+  /** @return The value of the error code, or null if it isn't known. */
+  @SuppressWarnings("unchecked")
+  public V get(String key) {
+    if (key == null) {
+      return null;
+    }
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  @Override
+  public String findKey(char[] chars, int offset, int length) {
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    for (int index = spread(hash) & mask; keys[index] != null; index = (index + 1) & mask) {
+      if (hashes[index] == hash && contentEquals(keys[index], chars, offset, length)) {
+        return keys[index];
+      }
+    }
+    return null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private int indexOf(String key) {
+    int hash = key.hashCode();
+    for (int index = spread(hash) & mask; keys[index] != null; index = (index + 1) & mask) {
+      if (hashes[index] == hash && keys[index].equals(key)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean contentEquals(String key, char[] chars, int offset, int length) {
+    if (key.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
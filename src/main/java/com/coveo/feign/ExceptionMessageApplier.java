@@ -0,0 +1,11 @@
+package com.coveo.feign;
+
+/**
+ * Sets the message of a decoded exception. It is resolved once per exception class by {@link
+ * ExceptionMessageAppliers}, so decoding an exception never checks its type nor goes through
+ * reflection.
+ */
+@FunctionalInterface
+interface ExceptionMessageApplier {
+  void apply(Object exception, String message);
+}
@@ -0,0 +1,66 @@
+package com.coveo.feign;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.coveo.feign.annotation.ExceptionMessageSetter;
+
+final class ExceptionMessageAppliers {
+  private static final Logger logger = LoggerFactory.getLogger(ExceptionMessageAppliers.class);
+
+  private static final MethodHandle DETAIL_MESSAGE_SETTER = getDetailMessageSetter();
+
+  private static final ExceptionMessageApplier EXCEPTION_MESSAGE_SETTER =
+      (exception, message) -> ((ExceptionMessageSetter) exception).setExceptionMessage(message);
+  private static final ExceptionMessageApplier DETAIL_MESSAGE =
+      (exception, message) -> {
+        try {
+          DETAIL_MESSAGE_SETTER.invokeExact((Throwable) exception, message);
+        } catch (Throwable e) {
+          throw new IllegalStateException("Could not set the detailMessage of an exception.", e);
+        }
+      };
+  static final ExceptionMessageApplier NONE = (exception, message) -> {};
+
+  private ExceptionMessageAppliers() {}
+
+  static ExceptionMessageApplier forClass(Class<?> clazz) {
+    if (ExceptionMessageSetter.class.isAssignableFrom(clazz)) {
+      return EXCEPTION_MESSAGE_SETTER;
+    }
+    return isDetailMessageSettable() && Throwable.class.isAssignableFrom(clazz)
+        ? DETAIL_MESSAGE
+        : NONE;
+  }
+
+  static boolean isDetailMessageSettable() {
+    return DETAIL_MESSAGE_SETTER != null;
+  }
+
+  private static MethodHandle getDetailMessageSetter() {
+    if (Runtime.version().feature() >= 15) {
+      logger.debug(
+          "Unable to set the detailMessage via reflection for runtime version 15+, make sure the base exception do implement '{}'.",
+          ExceptionMessageSetter.class.getName());
+      return null;
+    }
+    try {
+      Field detailMessageField = Throwable.class.getDeclaredField("detailMessage");
+      detailMessageField.setAccessible(true);
+      return MethodHandles.lookup()
+          .unreflectSetter(detailMessageField)
+          .asType(MethodType.methodType(void.class, Throwable.class, String.class));
+    } catch (Exception e) {
+      logger.debug(
+          "Unable to set the detailMessage via reflection, make sure the base exception do implement '{}'. Error message: '{}'.",
+          ExceptionMessageSetter.class.getName(),
+          e.getMessage());
+      return null;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.coveo.feign;
+
+/** When a {@link ReflectionErrorDecoder} scans its API class and resolves the thrown exceptions. */
+public enum InitializationMode {
+  /** In the constructor, which fails if an exception can't be resolved. This is the default. */
+  EAGER,
+  /** On the first call to {@code decode}, once for all the threads decoding concurrently. */
+  LAZY,
+  /**
+   * On the {@link ReflectionErrorDecoder#getInitializationExecutor() initialization executor} once
+   * {@link ReflectionErrorDecoder#startInitialization()} is called on the constructed decoder. A
+   * {@code decode} call made before it completes waits for it, or runs it if it wasn't started yet.
+   */
+  BACKGROUND
+}
@@ -2,26 +2,61 @@ package com.coveo.feign;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.coveo.feign.annotation.ExceptionInstantiation;
+import com.coveo.feign.annotation.ExceptionInstantiation.Strategy;
 import com.coveo.feign.annotation.ExceptionMessageSetter;
+import com.coveo.feign.extractor.DecoderErrorKeyExtractor;
+import com.coveo.feign.extractor.ErrorKey;
+import com.coveo.feign.extractor.ErrorKeyCache;
+import com.coveo.feign.extractor.ErrorKeyExtractor;
+import com.coveo.feign.extractor.JacksonStreamingErrorKeyExtractor;
+import com.coveo.feign.extractor.ObjectReaderErrorKeyExtractor;
+import com.coveo.feign.extractor.SharedObjectReaders;
+import com.coveo.feign.filter.ErrorResponseFilter;
+import com.coveo.feign.filter.ErrorStormShortCircuit;
+import com.coveo.feign.hierarchy.BytecodeClassHierarchySupplier;
 import com.coveo.feign.hierarchy.CachedSpringClassHierarchySupplier;
 import com.coveo.feign.hierarchy.ClassHierarchySupplier;
 import com.coveo.feign.hierarchy.EmptyClassHierarchySupplier;
+import com.coveo.feign.hierarchy.LazyClassHierarchySupplier;
+import com.coveo.feign.metrics.DecodeListener;
+import com.coveo.feign.metrics.DecodeOutcome;
+import com.coveo.feign.metrics.FlightRecorderEvents;
+import com.coveo.feign.util.BufferedBody;
 import com.coveo.feign.util.ClassUtils;
 import com.coveo.feign.util.Pair;
 
@@ -30,35 +65,36 @@ import feign.Response;
 import feign.Util;
 import feign.codec.Decoder;
 import feign.codec.ErrorDecoder;
-import feign.jackson.JacksonDecoder;
 
+/**
+ * Maps the error responses of a Feign client to the exceptions declared thrown by its API class.
+ *
+ * <p>A decoder is shared by every thread calling its Feign client, so it is thread-safe once
+ * constructed: the exceptions are resolved once by the initialization, which is published to the
+ * decoding threads by a {@link FutureTask}, and the decoding only reads immutable state. The
+ * protected setters must be called while constructing the decoder, and the {@link Decoder}, {@link
+ * ErrorKeyExtractor}, {@link ErrorResponseFilter}, {@link DecodeListener} and fallback {@link
+ * ErrorDecoder} given to them must be thread-safe too.
+ *
+ * <p>The initialization calls the overridden methods like {@link #getKeyFromException}, {@link
+ * #addAdditionalRuntimeExceptions} and {@link #isStackTraceEnabled}, either from the constructor
+ * of this class or from the first decoded error, so they must not depend on the fields of the
+ * subclass.
+ */
 @SuppressWarnings("unchecked")
 public abstract class ReflectionErrorDecoder<T, S extends Exception> implements ErrorDecoder {
   private static final Logger logger = LoggerFactory.getLogger(ReflectionErrorDecoder.class);
 
   private static final List<Object> SUPPORTED_CONSTRUCTOR_ARGUMENTS;
-  private static Field detailMessageField;
+  private static final Class<?>[] STACK_TRACE_FREE_CONSTRUCTOR_PARAMETERS = {
+    String.class, Throwable.class, boolean.class, boolean.class
+  };
+  private static final List<Object> STACK_TRACE_FREE_CONSTRUCTOR_ARGUMENTS =
+      Arrays.asList("", null, false, false);
+  private static final StackTraceElement[] EMPTY_STACK_TRACE = new StackTraceElement[0];
   private static boolean isSpringWebAvailable = ClassUtils.isSpringWebAvailable();
 
   static {
-    try {
-      if (Runtime.version().feature() < 15) {
-        detailMessageField = Throwable.class.getDeclaredField("detailMessage");
-        detailMessageField.setAccessible(true);
-      } else {
-        logger.debug(
-            "Unable to set the detailMessage via reflection for runtime version 15+, make sure the base exception do implement '{}'.",
-            ExceptionMessageSetter.class.getName());
-        detailMessageField = null;
-      }
-    } catch (Exception e) {
-      logger.debug(
-          "Unable to set the detailMessage via reflection, make sure the base exception do implement '{}'. Error message: '{}'.",
-          ExceptionMessageSetter.class.getName(),
-          e.getMessage());
-      detailMessageField = null;
-    }
-
     String message =
         "Not the real cause, this throwable was only used for instantiation by ReflectionErrorDecoder.";
     Exception dummyException = new Exception(message);
@@ -77,11 +113,22 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
   private Map<String, ThrownExceptionDetails<S>> exceptionsThrown = new HashMap<>();
   private Map<String, ThrownExceptionDetails<RuntimeException>> runtimeExceptionsThrown =
       new HashMap<>();
+  private ErrorCodeTable<ThrownExceptionDetails<? extends Exception>> errorCodeTable;
 
-  private Decoder decoder = new JacksonDecoder();
+  private ErrorKeyExtractor errorKeyExtractor;
+  private int maxBodySize = Integer.MAX_VALUE;
+  private final LongAdder oversizedBodyCount = new LongAdder();
   private ErrorDecoder fallbackErrorDecoder = new ErrorDecoder.Default();
+  private ErrorResponseFilter errorResponseFilter = ErrorResponseFilter.acceptAll();
+  private DecodeListener decodeListener;
+  private ErrorKeyCache errorKeyCache;
+  private ErrorStormShortCircuit errorStormShortCircuit;
+  private Executor asyncDecodeExecutor;
 
-  private boolean exceptionMessageHandlingLogged;
+  private final FutureTask<Void> initialization = new FutureTask<>(this::initialize, null);
+  private final AtomicBoolean initializationStarted = new AtomicBoolean();
+
+  private final AtomicBoolean exceptionMessageHandlingLogged = new AtomicBoolean();
 
   public ReflectionErrorDecoder(
       Class<?> apiClass, Class<T> apiResponseClass, Class<S> baseExceptionClass) {
@@ -98,9 +145,7 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
         apiResponseClass,
         baseExceptionClass,
         basePackage,
-        ClassUtils.isSpringFrameworkAvailable()
-            ? new CachedSpringClassHierarchySupplier(baseExceptionClass, basePackage)
-            : new EmptyClassHierarchySupplier());
+        getDefaultClassHierarchySupplier(baseExceptionClass, basePackage));
   }
 
   public ReflectionErrorDecoder(
@@ -114,49 +159,200 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
     this.basePackage = basePackage;
     this.classHierarchySupplier = classHierarchySupplier;
     this.baseExceptionClass = baseExceptionClass;
+    this.errorKeyExtractor =
+        new ObjectReaderErrorKeyExtractor<>(
+            apiResponseClass, this::getKeyFromResponse, this::getMessageFromResponse);
+
+    switch (getInitializationMode()) {
+      case EAGER:
+        awaitInitialization();
+        break;
+      case BACKGROUND:
+      case LAZY:
+        break;
+    }
+  }
 
-    initialize();
+  private static ClassHierarchySupplier getDefaultClassHierarchySupplier(
+      Class<?> baseExceptionClass, String basePackage) {
+    // The default suppliers scan the classpath in their constructor, which must wait for the
+    // initialization so a lazy or background decoder doesn't scan it on the startup path
+    return new LazyClassHierarchySupplier(
+        () -> {
+          if (ClassUtils.isSpringFrameworkAvailable()) {
+            return new CachedSpringClassHierarchySupplier(baseExceptionClass, basePackage);
+          }
+          // Without Spring, the whole classpath is only scanned when given explicitly
+          return basePackage == null || basePackage.isEmpty()
+              ? new EmptyClassHierarchySupplier()
+              : new BytecodeClassHierarchySupplier(baseExceptionClass, basePackage);
+        });
   }
 
-  //The copied response will be closed in SynchronousMethodHandler and the actual is closed in Util.toByteArray
+  //The copied response will be closed in SynchronousMethodHandler and the actual is closed in BufferedBody.read
   @Override
   public Exception decode(String methodKey, Response response) {
+    awaitInitialization();
+
+    Object event = FlightRecorderEvents.beginDecode();
+    DecodeListener listener = decodeListener;
+    long start = listener != null ? System.nanoTime() : 0;
+    DecodeOutcome outcome = DecodeOutcome.NO_BODY;
+    String key = null;
+    int bodySize = -1;
+    Exception exception = null;
+
+    ErrorStormShortCircuit shortCircuit = errorStormShortCircuit;
     Response responseCopy = response;
-    if (response.body() != null) {
+    if (shortCircuit != null && shortCircuit.isShortCircuited(methodKey)) {
+      // The fallback still maps the status and the Retry-After header, only the body is skipped
+      outcome = DecodeOutcome.SHORT_CIRCUITED;
+      if (response.body() != null) {
+        Util.ensureClosed(response.body());
+        responseCopy = response.toBuilder().body((byte[]) null).build();
+      }
+    } else if (response.body() != null) {
       try {
-        byte[] bodyData = Util.toByteArray(response.body().asInputStream());
-        responseCopy = responseCopy.toBuilder().body(bodyData).build();
-        T apiResponse = (T) decoder.decode(responseCopy, apiResponseClass);
-        if (apiResponse != null) {
-          String key = getKeyFromResponse(apiResponse);
-          if (exceptionsThrown.containsKey(key)) {
-            return getExceptionByReflection(key, apiResponse);
+        BufferedBody bufferedBody = BufferedBody.read(response.body(), maxBodySize);
+        bodySize = bufferedBody.getData().length;
+        responseCopy = responseCopy.toBuilder().body(bufferedBody.getData()).build();
+        if (bufferedBody.isTruncated()) {
+          outcome = DecodeOutcome.OVERSIZED_BODY;
+          oversizedBodyCount.increment();
+          logger.debug(
+              "The error body for '{}' is larger than {} bytes, it will only be decoded by the fallback ErrorDecoder.",
+              methodKey,
+              maxBodySize);
+        } else if (errorResponseFilter.accepts(response)) {
+          ErrorKey errorKey = null;
+          try {
+            errorKey = extractErrorKey(responseCopy, bufferedBody.getData());
+            outcome = DecodeOutcome.NO_KEY;
+          } catch (IOException e) {
+            // The body was read, so it isn't a valid error body, like an HTML page
+            outcome = DecodeOutcome.PARSE_ERROR;
           }
-          if (runtimeExceptionsThrown.containsKey(key)) {
-            return getRuntimeExceptionByReflection(key, apiResponse);
+          if (errorKey != null) {
+            key = errorKey.getKey();
+            exception = getExceptionFromKey(key, errorKey.getMessage());
+            outcome = exception != null ? DecodeOutcome.EXCEPTION : DecodeOutcome.UNKNOWN_KEY;
           }
+        } else {
+          outcome = DecodeOutcome.FILTERED;
         }
       } catch (IOException e) {
         // Fail silently as a new exception will be thrown in super
+        outcome = DecodeOutcome.IO_ERROR;
       } catch (
           IllegalAccessException | IllegalArgumentException | InstantiationException
                   | InvocationTargetException
               e) {
+        outcome = DecodeOutcome.INSTANTIATION_ERROR;
         logger.error(
             "Error instantiating the exception declared thrown for the interface '{}'",
             apiClass.getName(),
             e);
       }
     }
-    return fallbackErrorDecoder.decode(methodKey, responseCopy);
+    if (exception == null) {
+      exception = fallbackErrorDecoder.decode(methodKey, responseCopy);
+    }
+    if (shortCircuit != null && outcome != DecodeOutcome.SHORT_CIRCUITED) {
+      shortCircuit.record(methodKey, response.status(), outcome);
+    }
+
+    FlightRecorderEvents.endDecode(
+        event, apiClass, methodKey, response.status(), key, outcome, bodySize);
+    if (listener != null) {
+      listener.onDecode(
+          apiClass,
+          methodKey,
+          response.status(),
+          key,
+          outcome,
+          bodySize,
+          System.nanoTime() - start);
+    }
+    return exception;
+  }
+
+  /**
+   * Decodes the response like {@link #decode(String, Response)}, but on the async decode executor
+   * instead of the calling thread. With {@code AsyncFeign}, this keeps the buffering of the body,
+   * the Jackson parsing and the waiting for a lazy or background initialization off the I/O
+   * threads. The response must not be closed before the returned future is completed.
+   *
+   * <p>Unless another executor is set with {@link #setAsyncDecodeExecutor(Executor)}, the decoding
+   * runs on a small pool shared by the decoders, never on the common {@link ForkJoinPool}: reading
+   * the body blocks, and an error storm would starve the parallel streams and other tasks of the
+   * common pool.
+   *
+   * @return The exception decoded from the response, or a future completed with the exception
+   *     thrown by the decoding, like an invalid exception found by a lazy initialization.
+   */
+  public CompletableFuture<Exception> decodeAsync(String methodKey, Response response) {
+    Executor executor =
+        asyncDecodeExecutor != null ? asyncDecodeExecutor : DefaultExecutor.EXECUTOR;
+    return CompletableFuture.supplyAsync(() -> decode(methodKey, response), executor);
+  }
+
+  private ErrorKey extractErrorKey(Response response, byte[] body) throws IOException {
+    ErrorKeyCache cache = errorKeyCache;
+    return cache != null
+        ? cache.extract(response, body, errorCodeTable, errorKeyExtractor)
+        : errorKeyExtractor.extract(response, body, errorCodeTable);
+  }
+
+  private Exception getExceptionFromKey(String key, String message)
+      throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    ThrownExceptionDetails<? extends Exception> exceptionDetails = errorCodeTable.get(key);
+    return exceptionDetails != null ? exceptionDetails.instantiate(message) : null;
+  }
+
+  /**
+   * Starts the initialization of a decoder in the {@link InitializationMode#BACKGROUND} mode on the
+   * {@link #getInitializationExecutor() initialization executor}. It must be called once the
+   * decoder is fully constructed, so the executor thread sees the state of the subclass, and does
+   * nothing in the other modes or when the initialization was already started. A decoder never
+   * started is initialized by its first decoded error, like in the {@link InitializationMode#LAZY}
+   * mode.
+   */
+  public void startInitialization() {
+    if (getInitializationMode() == InitializationMode.BACKGROUND
+        && !initialization.isDone()
+        && initializationStarted.compareAndSet(false, true)) {
+      getInitializationExecutor().execute(initialization);
+    }
+  }
+
+  void awaitInitialization() {
+    // Runs the initialization if it wasn't started yet, otherwise waits for it to complete
+    initialization.run();
+    try {
+      initialization.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException("ReflectionErrorDecoder instantiation failed!", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Interrupted while waiting for the ReflectionErrorDecoder initialization.", e);
+    }
   }
 
   private void initialize() {
+    Object event = FlightRecorderEvents.beginDecoderInitialization();
     try {
+      Set<Class<?>> processedExceptionClasses = new HashSet<>();
       for (Method method : apiClass.getMethods()) {
         if (method.getAnnotation(RequestLine.class) != null
             || (isSpringWebAvailable && isMethodAnnotedWithAMappingAnnotation(method))) {
-          processDeclaredThrownExceptions(method.getExceptionTypes());
+          processDeclaredThrownExceptions(method.getExceptionTypes(), processedExceptionClasses);
         }
       }
     } catch (
@@ -167,14 +363,29 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
     }
 
     addAdditionalRuntimeExceptions(runtimeExceptionsThrown);
+
+    exceptionsThrown = Collections.unmodifiableMap(exceptionsThrown);
+    runtimeExceptionsThrown = Collections.unmodifiableMap(runtimeExceptionsThrown);
+
+    //The declared exceptions take precedence over the runtime exceptions with the same code
+    Map<String, ThrownExceptionDetails<? extends Exception>> allExceptionsThrown =
+        new HashMap<>(runtimeExceptionsThrown);
+    allExceptionsThrown.putAll(exceptionsThrown);
+    errorCodeTable = new ErrorCodeTable<>(allExceptionsThrown);
+    FlightRecorderEvents.endDecoderInitialization(event, apiClass, errorCodeTable.size());
   }
 
-  private void processDeclaredThrownExceptions(Class<?>[] thrownExceptionsClasses)
+  private void processDeclaredThrownExceptions(
+      Class<?>[] thrownExceptionsClasses, Set<Class<?>> processedExceptionClasses)
       throws InstantiationException, IllegalAccessException, InvocationTargetException {
     for (Class<?> clazz : thrownExceptionsClasses) {
+      if (!processedExceptionClasses.add(clazz)) {
+        continue;
+      }
       if (baseExceptionClass.isAssignableFrom(clazz)) {
-        if (!classHierarchySupplier.getSubClasses(clazz, basePackage).isEmpty()) {
-          extractExceptionInfoFromSubClasses(classHierarchySupplier, clazz);
+        Set<Class<?>> subClasses = classHierarchySupplier.getSubClasses(clazz, basePackage);
+        if (!subClasses.isEmpty()) {
+          extractExceptionInfoFromSubClasses(subClasses);
         } else {
           extractExceptionInfo((Class<? extends S>) clazz);
         }
@@ -189,39 +400,8 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
     }
   }
 
-  private RuntimeException getRuntimeExceptionByReflection(String exceptionKey, T apiResponse)
-      throws InstantiationException, IllegalAccessException, InvocationTargetException {
-    RuntimeException runtimeExceptionToBeThrown =
-        runtimeExceptionsThrown.get(exceptionKey).instantiate();
-    if (runtimeExceptionToBeThrown instanceof ExceptionMessageSetter) {
-      ((ExceptionMessageSetter) runtimeExceptionToBeThrown)
-          .setExceptionMessage(getMessageFromResponse(apiResponse));
-    } else {
-      if (detailMessageField != null) {
-        detailMessageField.set(runtimeExceptionToBeThrown, getMessageFromResponse(apiResponse));
-      }
-    }
-    return runtimeExceptionToBeThrown;
-  }
-
-  private S getExceptionByReflection(String exceptionKey, T apiResponse)
-      throws IllegalAccessException, InstantiationException, InvocationTargetException {
-    S exceptionToBeThrown = exceptionsThrown.get(exceptionKey).instantiate();
-    if (exceptionToBeThrown instanceof ExceptionMessageSetter) {
-      ((ExceptionMessageSetter) exceptionToBeThrown)
-          .setExceptionMessage(getMessageFromResponse(apiResponse));
-    } else {
-      if (detailMessageField != null) {
-        detailMessageField.set(exceptionToBeThrown, getMessageFromResponse(apiResponse));
-      }
-    }
-    return exceptionToBeThrown;
-  }
-
-  private void extractExceptionInfoFromSubClasses(
-      ClassHierarchySupplier classHierarchySupplier, Class<?> clazz)
+  private void extractExceptionInfoFromSubClasses(Set<Class<?>> subClasses)
       throws InstantiationException, IllegalAccessException, InvocationTargetException {
-    Set<Class<?>> subClasses = classHierarchySupplier.getSubClasses(clazz, basePackage);
     for (Class<?> subClass : subClasses) {
       if (!Modifier.isAbstract(subClass.getModifiers())) {
         extractExceptionInfo((Class<? extends S>) subClass);
@@ -231,22 +411,16 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
 
   private void extractExceptionInfo(Class<? extends S> clazz)
       throws InstantiationException, IllegalAccessException, InvocationTargetException {
-    ExceptionSupplier<S> supplier = getExceptionSupplierFromExceptionClass(clazz);
-
-    if (supplier != null) {
-      String errorCode = getKeyFromException(supplier.get());
-      if (errorCode == null || errorCode.isEmpty()) {
-        throw new IllegalStateException(
-            String.format(
-                "The exception '%s' needs to declare an error code to be rethrown. If it's a base exception, "
-                    + "make it abstract.",
-                clazz.getName()));
-      }
-
+    Optional<ThrownExceptionDetails<?>> registeredExceptionDetails =
+        ThrownExceptionRegistry.getOrResolve(
+            getClass(), baseExceptionClass, clazz, () -> resolveExceptionDetails(clazz));
+
+    if (registeredExceptionDetails.isPresent()) {
+      ThrownExceptionDetails<S> exceptionDetails =
+          (ThrownExceptionDetails<S>) registeredExceptionDetails.get();
+      String errorCode = exceptionDetails.getErrorCode();
       ThrownExceptionDetails<S> existingExceptionDetails =
-          exceptionsThrown.put(
-              errorCode,
-              new ThrownExceptionDetails<S>().withClazz(clazz).withExceptionSupplier(supplier));
+          exceptionsThrown.put(errorCode, exceptionDetails);
 
       if (existingExceptionDetails != null && !clazz.equals(existingExceptionDetails.getClazz())) {
         throw new IllegalStateException(
@@ -257,18 +431,127 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
                 existingExceptionDetails.getClazz().getName()));
       }
 
-      if (detailMessageField == null
-          && !exceptionMessageHandlingLogged
-          && !ExceptionMessageSetter.class.isAssignableFrom(clazz)) {
+      if (!ExceptionMessageAppliers.isDetailMessageSettable()
+          && !ExceptionMessageSetter.class.isAssignableFrom(clazz)
+          && exceptionMessageHandlingLogged.compareAndSet(false, true)) {
         logger.warn(
             "The class '{}' or its superclass(es) do not implement '{}', therefore the Throwable detailMessage field will not be set. This will be only logged once.",
             clazz,
             ExceptionMessageSetter.class.getName());
-        exceptionMessageHandlingLogged = true;
       }
     }
   }
 
+  private Optional<ThrownExceptionDetails<?>> resolveExceptionDetails(Class<? extends S> clazz)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    ExceptionSupplier<S> supplier = getExceptionSupplierFromExceptionClass(clazz);
+    if (supplier == null) {
+      return Optional.empty();
+    }
+
+    String errorCode = getKeyFromException(supplier.get());
+    if (errorCode == null || errorCode.isEmpty()) {
+      throw new IllegalStateException(
+          String.format(
+              "The exception '%s' needs to declare an error code to be rethrown. If it's a base exception, "
+                  + "make it abstract.",
+              clazz.getName()));
+    }
+    ThrownExceptionDetails<S> exceptionDetails =
+        new ThrownExceptionDetails<S>().withClazz(clazz).withErrorCode(errorCode);
+
+    ExceptionInstantiation instantiation = clazz.getAnnotation(ExceptionInstantiation.class);
+    switch (instantiation != null ? instantiation.value() : Strategy.CONSTRUCTOR) {
+      case PROTOTYPE:
+        exceptionDetails.setExceptionSupplier(getPrototypeExceptionSupplier(clazz, supplier));
+        break;
+      case SINGLETON:
+        exceptionDetails.setExceptionSupplier(getSingletonExceptionSupplier(clazz, errorCode));
+        exceptionDetails.setMessageApplier(ExceptionMessageAppliers.NONE);
+        break;
+      case CONSTRUCTOR:
+        exceptionDetails.setExceptionSupplier(supplier);
+        break;
+    }
+    return Optional.of(exceptionDetails);
+  }
+
+  private ExceptionSupplier<S> getPrototypeExceptionSupplier(
+      Class<? extends S> clazz, ExceptionSupplier<S> supplier)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    Method cloneMethod;
+    try {
+      cloneMethod = clazz.getMethod("clone");
+    } catch (NoSuchMethodException e) {
+      cloneMethod = null;
+    }
+    if (!Cloneable.class.isAssignableFrom(clazz) || cloneMethod == null) {
+      throw new IllegalStateException(
+          String.format(
+              "The exception '%s' is instantiated from a prototype, it must implement Cloneable and declare a "
+                  + "public clone() method.",
+              clazz.getName()));
+    }
+
+    S prototype = supplier.get();
+    if (prototype.getCause() == null) {
+      try {
+        //A Throwable without cause references itself as its cause, which the clones would reference
+        prototype.initCause(null);
+      } catch (IllegalStateException e) {
+        //The cause was already set to null by the constructor
+      }
+    }
+    prototype.setStackTrace(EMPTY_STACK_TRACE);
+
+    try {
+      MethodHandle cloneHandle =
+          MethodHandles.lookup()
+              .unreflect(cloneMethod)
+              .bindTo(prototype)
+              .asType(MethodType.methodType(Exception.class));
+      return getExceptionSupplier(cloneHandle, false);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(
+          String.format(
+              "Could not access the clone() method of the exception '%s'.", clazz.getName()),
+          e);
+    }
+  }
+
+  private ExceptionSupplier<S> getSingletonExceptionSupplier(
+      Class<? extends S> clazz, String errorCode)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    Constructor<? extends S> stackTraceFreeConstructor;
+    try {
+      stackTraceFreeConstructor = clazz.getConstructor(STACK_TRACE_FREE_CONSTRUCTOR_PARAMETERS);
+    } catch (NoSuchMethodException e) {
+      stackTraceFreeConstructor = null;
+    }
+    if (stackTraceFreeConstructor == null || ExceptionMessageSetter.class.isAssignableFrom(clazz)) {
+      throw new IllegalStateException(
+          String.format(
+              "The exception '%s' is instantiated as a singleton, it must declare a public (String, Throwable, "
+                  + "boolean, boolean) constructor and must not implement '%s'.",
+              clazz.getName(),
+              ExceptionMessageSetter.class.getName()));
+    }
+
+    S singleton =
+        getExceptionSupplier(
+                Pair.of(stackTraceFreeConstructor, STACK_TRACE_FREE_CONSTRUCTOR_ARGUMENTS), false)
+            .get();
+    if (!errorCode.equals(getKeyFromException(singleton))) {
+      throw new IllegalStateException(
+          String.format(
+              "The exception '%s' is instantiated as a singleton, but its (String, Throwable, boolean, boolean) "
+                  + "constructor doesn't set the error code '%s'.",
+              clazz.getName(),
+              errorCode));
+    }
+    return () -> singleton;
+  }
+
   private boolean isMethodAnnotedWithAMappingAnnotation(Method method) {
     return Stream.of(method.getAnnotations())
         .anyMatch(
@@ -280,6 +563,20 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
   }
 
   protected ExceptionSupplier<S> getExceptionSupplierFromExceptionClass(Class<? extends S> clazz) {
+    if (!isStackTraceEnabled()) {
+      try {
+        Constructor<? extends S> stackTraceFreeConstructor =
+            clazz.getConstructor(STACK_TRACE_FREE_CONSTRUCTOR_PARAMETERS);
+        return getExceptionSupplier(
+            Pair.of(stackTraceFreeConstructor, STACK_TRACE_FREE_CONSTRUCTOR_ARGUMENTS), false);
+      } catch (NoSuchMethodException e) {
+        logger.debug(
+            "The exception '{}' has no public (String, Throwable, boolean, boolean) constructor, its stack trace "
+                + "will be captured and then cleared.",
+            clazz.getName());
+      }
+    }
+
     List<Pair<Constructor<?>, List<Object>>> potentialConstructors = new ArrayList<>();
     List<Object> supportedArguments = getSupportedConstructorArgumentInstances();
     for (Constructor<?> constructor : clazz.getConstructors()) {
@@ -318,17 +615,90 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
                             argument -> Throwable.class.isAssignableFrom(argument.getClass())))
             .findFirst()
             .orElseGet(() -> potentialConstructors.get(0));
-    return ()
-        -> (S)
-            selectedConstructor
-                .getLeft()
-                .newInstance(selectedConstructor.getRight().toArray(new Object[0]));
+    return getExceptionSupplier(selectedConstructor, !isStackTraceEnabled());
+  }
+
+  private ExceptionSupplier<S> getExceptionSupplier(
+      Pair<Constructor<?>, List<Object>> constructor, boolean clearStackTrace) {
+    return getExceptionSupplier(getExceptionFactory(constructor), clearStackTrace);
+  }
+
+  private ExceptionSupplier<S> getExceptionSupplier(
+      MethodHandle exceptionFactory, boolean clearStackTrace) {
+    return () -> {
+      Exception exception;
+      try {
+        exception = (Exception) exceptionFactory.invokeExact();
+      } catch (Throwable e) {
+        throw new InvocationTargetException(e);
+      }
+      if (clearStackTrace) {
+        exception.setStackTrace(EMPTY_STACK_TRACE);
+      }
+      return (S) exception;
+    };
+  }
+
+  private MethodHandle getExceptionFactory(Pair<Constructor<?>, List<Object>> constructor) {
+    try {
+      //Bind the arguments once so instantiating an exception is a plain constructor call
+      return MethodHandles.insertArguments(
+              MethodHandles.lookup().unreflectConstructor(constructor.getLeft()),
+              0,
+              constructor.getRight().toArray())
+          .asType(MethodType.methodType(Exception.class));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(
+          String.format(
+              "Could not access the constructor of the exception '%s' for the interface '%s'.",
+              constructor.getLeft().getDeclaringClass().getName(),
+              apiClass.getName()),
+          e);
+    }
   }
 
   protected List<Object> getSupportedConstructorArgumentInstances() {
     return SUPPORTED_CONSTRUCTOR_ARGUMENTS;
   }
 
+  /**
+   * Whether the exceptions instantiated by this decoder capture their stack trace. The stack trace
+   * of a decoded exception only shows the Feign internals, so it can be disabled to save the cost of
+   * {@link Throwable#fillInStackTrace()} when many errors are decoded.
+   *
+   * When disabled, a public (String, Throwable, boolean, boolean) constructor is used if the
+   * exception declares one, like {@link Throwable#Throwable(String, Throwable, boolean, boolean)}.
+   * Otherwise, the stack trace is cleared after the instantiation.
+   *
+   * @return true to capture the stack trace of the decoded exceptions, which is the default.
+   */
+  protected boolean isStackTraceEnabled() {
+    return true;
+  }
+
+  /**
+   * Lazy and background initializations take the scan of the API class and of the exception
+   * hierarchies off the startup of the application, at the cost of reporting an invalid exception,
+   * like a duplicate error code, on the first decoded error instead of in the constructor.
+   *
+   * <p>This is called from the constructor, so it must not depend on the fields of the subclass.
+   *
+   * @return When the decoder is initialized, {@link InitializationMode#EAGER} by default.
+   */
+  protected InitializationMode getInitializationMode() {
+    return InitializationMode.EAGER;
+  }
+
+  /**
+   * @return The executor initializing the decoder in the {@link InitializationMode#BACKGROUND}
+   *     mode once {@link #startInitialization()} is called, the pool of daemon threads shared by
+   *     the decoders by default. It shouldn't be the common {@link ForkJoinPool}, since the
+   *     initialization blocks on the scan of the classpath.
+   */
+  protected Executor getInitializationExecutor() {
+    return DefaultExecutor.EXECUTOR;
+  }
+
   protected void addAdditionalRuntimeExceptions(
       @SuppressWarnings("unused")
       Map<String, ThrownExceptionDetails<RuntimeException>> runtimeExceptionsThrown) {}
@@ -339,11 +709,151 @@ public abstract class ReflectionErrorDecoder<T, S extends Exception> implements
 
   protected abstract String getMessageFromResponse(T apiResponse);
 
+  /**
+   * Decodes the body in {@code apiResponseClass} with a {@link Decoder} instead of the {@link
+   * SharedObjectReaders shared Jackson reader}. This also replaces any {@link ErrorKeyExtractor}
+   * previously set, so the key is read from the decoded body again.
+   *
+   * @param decoder The decoder of the error responses, called concurrently by the decoding threads.
+   */
   protected void setDecoder(Decoder decoder) {
-    this.decoder = decoder;
+    this.errorKeyExtractor =
+        new DecoderErrorKeyExtractor<>(
+            decoder, apiResponseClass, this::getKeyFromResponse, this::getMessageFromResponse);
+  }
+
+  /**
+   * Replaces how the key and the message are extracted from the response. By default, the body is
+   * bound in {@code apiResponseClass} with the {@link SharedObjectReaders shared Jackson reader}
+   * and given to {@link #getKeyFromResponse(Object)} and {@link
+   * #getMessageFromResponse(Object)}, which are not called anymore with a custom extractor.
+   *
+   * @param errorKeyExtractor The extractor of the key and the message of the error responses.
+   */
+  protected void setErrorKeyExtractor(ErrorKeyExtractor errorKeyExtractor) {
+    this.errorKeyExtractor = errorKeyExtractor;
   }
 
   protected void setFallbackErrorDecoder(ErrorDecoder errorDecoder) {
     this.fallbackErrorDecoder = errorDecoder;
   }
+
+  /**
+   * Restricts the responses decoded by reflection, the others are directly given to the fallback
+   * {@link ErrorDecoder}. Every response is decoded by default, {@link
+   * ErrorResponseFilter#jsonErrors()} is a good start to skip the responses that can't be decoded.
+   *
+   * @param errorResponseFilter The filter applied on the status and the headers of the responses.
+   */
+  protected void setErrorResponseFilter(ErrorResponseFilter errorResponseFilter) {
+    this.errorResponseFilter = errorResponseFilter;
+  }
+
+  /**
+   * Notifies the listener of the outcome, the size and the duration of every decoded response, like
+   * the {@link com.coveo.feign.metrics.MicrometerDecodeListener}. Without a listener, which is the
+   * default, nothing is measured.
+   *
+   * @param decodeListener The listener, or null to disable it.
+   */
+  protected void setDecodeListener(DecodeListener decodeListener) {
+    this.decodeListener = decodeListener;
+  }
+
+  /**
+   * Caches the key and the message extracted from the error bodies, so a server returning the same
+   * error body again and again only has it parsed once. The cache keeps its hit and miss counts.
+   *
+   * @param errorKeyCache The cache of this decoder, or null to disable it.
+   */
+  protected void setErrorKeyCache(ErrorKeyCache errorKeyCache) {
+    this.errorKeyCache = errorKeyCache;
+  }
+
+  /**
+   * Stops reading the error responses of the method keys whose responses are nearly all server
+   * failures that can't be decoded, until a probe shows the server is back. Their responses are
+   * then given to the fallback {@link ErrorDecoder} without their body.
+   *
+   * @param errorStormShortCircuit The short circuit of this decoder, or null to disable it.
+   */
+  protected void setErrorStormShortCircuit(ErrorStormShortCircuit errorStormShortCircuit) {
+    this.errorStormShortCircuit = errorStormShortCircuit;
+  }
+
+  /**
+   * @param asyncDecodeExecutor The executor of {@link #decodeAsync(String, Response)}, a pool of
+   *     daemon threads shared by the decoders by default. It shouldn't be the common {@link
+   *     ForkJoinPool}, since the decoding blocks on the body.
+   */
+  protected void setAsyncDecodeExecutor(Executor asyncDecodeExecutor) {
+    this.asyncDecodeExecutor = asyncDecodeExecutor;
+  }
+
+  /**
+   * Reads the key and the message straight from the top level fields of the JSON body instead of
+   * decoding it in {@code apiResponseClass} with the {@link Decoder}. Only the first {@code
+   * maxParsedBytes} bytes of the body are parsed.
+   *
+   * @param keyFieldName The field holding the value returned by {@link #getKeyFromResponse(Object)}.
+   * @param messageFieldName The field holding the value returned by {@link
+   *     #getMessageFromResponse(Object)}.
+   * @param maxParsedBytes The maximum number of bytes parsed to find both fields.
+   */
+  protected void setStreamingErrorKeyExtraction(
+      String keyFieldName, String messageFieldName, int maxParsedBytes) {
+    setErrorKeyExtractor(
+        new JacksonStreamingErrorKeyExtractor(keyFieldName, messageFieldName, maxParsedBytes));
+  }
+
+  protected void setStreamingErrorKeyExtraction(String keyFieldName, String messageFieldName) {
+    setStreamingErrorKeyExtraction(
+        keyFieldName, messageFieldName, JacksonStreamingErrorKeyExtractor.DEFAULT_MAX_PARSED_BYTES);
+  }
+
+  /**
+   * Caps the number of bytes of the response body read by the decoder. A larger body is not decoded
+   * by reflection, the fallback {@link ErrorDecoder} directly gets a copy truncated to this size.
+   *
+   * @param maxBodySize The maximum number of bytes read from the response body.
+   */
+  protected void setMaxBodySize(int maxBodySize) {
+    if (maxBodySize < 0) {
+      throw new IllegalArgumentException("The maximum body size can't be negative.");
+    }
+    this.maxBodySize = maxBodySize;
+  }
+
+  /** @return The number of responses whose body was larger than the maximum body size. */
+  public long getOversizedBodyCount() {
+    return oversizedBodyCount.sum();
+  }
+
+  /**
+   * Only created when a decoder without an async decode executor calls {@code decodeAsync}, or
+   * when a background initialization is started on the default initialization executor.
+   */
+  private static final class DefaultExecutor {
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private static ExecutorService createExecutor() {
+      int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+      AtomicInteger threadIndex = new AtomicInteger();
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              threadCount,
+              threadCount,
+              60,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread =
+                    new Thread(runnable, "feign-error-decoder-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
 }
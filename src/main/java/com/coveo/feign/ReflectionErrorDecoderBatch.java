@@ -0,0 +1,82 @@
+package com.coveo.feign;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the {@link ReflectionErrorDecoder} of many API classes in parallel on a {@link
+ * ForkJoinPool}. The decoders sharing a base exception and base package still scan the classpath
+ * once through the cached {@link com.coveo.feign.hierarchy.ClassHierarchySupplier}, and resolve
+ * each exception once through the {@link ThrownExceptionRegistry}. Every decoder returned is
+ * initialized, whatever its {@link InitializationMode}, and is validated like a decoder created on
+ * its own.
+ */
+public class ReflectionErrorDecoderBatch<D extends ReflectionErrorDecoder<?, ?>> {
+  private final Function<Class<?>, D> decoderFactory;
+  private final Set<Class<?>> apiClasses = new LinkedHashSet<>();
+  private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+  /** @param decoderFactory Creates the decoder of an API class, usually a constructor reference. */
+  public ReflectionErrorDecoderBatch(Function<Class<?>, D> decoderFactory) {
+    this.decoderFactory = decoderFactory;
+  }
+
+  public ReflectionErrorDecoderBatch<D> withApiClass(Class<?> apiClass) {
+    apiClasses.add(apiClass);
+    return this;
+  }
+
+  public ReflectionErrorDecoderBatch<D> withApiClasses(Collection<Class<?>> apiClasses) {
+    this.apiClasses.addAll(apiClasses);
+    return this;
+  }
+
+  public ReflectionErrorDecoderBatch<D> withForkJoinPool(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+    return this;
+  }
+
+  /**
+   * @return The initialized decoder of every API class, in the order they were added.
+   * @throws IllegalStateException If a decoder can't be created, like when two exceptions declare
+   *     the same error code.
+   */
+  public Map<Class<?>, D> build() {
+    List<Class<?>> orderedApiClasses = new ArrayList<>(apiClasses);
+    List<D> decoders =
+        forkJoinPool
+            .submit(
+                ()
+                    -> orderedApiClasses
+                        .parallelStream()
+                        .map(this::createDecoder)
+                        .collect(Collectors.toList()))
+            .join();
+
+    Map<Class<?>, D> decodersByApiClass = new LinkedHashMap<>();
+    for (int i = 0; i < orderedApiClasses.size(); i++) {
+      decodersByApiClass.put(orderedApiClasses.get(i), decoders.get(i));
+    }
+    return Collections.unmodifiableMap(decodersByApiClass);
+  }
+
+  private D createDecoder(Class<?> apiClass) {
+    try {
+      D decoder = decoderFactory.apply(apiClass);
+      decoder.awaitInitialization();
+      return decoder;
+    } catch (RuntimeException e) {
+      throw new IllegalStateException(
+          String.format("Could not create the decoder of '%s'.", apiClass.getName()), e);
+    }
+  }
+}
@@ -5,13 +5,18 @@ import java.lang.reflect.InvocationTargetException;
 public class ThrownExceptionDetails<T> {
   private Class<? extends T> clazz;
   private ExceptionSupplier<T> exceptionSupplier;
+  private String errorCode;
+  private ExceptionMessageApplier messageApplier;
+  private boolean frozen;
 
   public Class<? extends T> getClazz() {
     return clazz;
   }
 
   public void setClazz(Class<? extends T> clazz) {
+    checkNotFrozen();
     this.clazz = clazz;
+    this.messageApplier = clazz != null ? ExceptionMessageAppliers.forClass(clazz) : null;
   }
 
   public ExceptionSupplier<T> getServiceExceptionSupplier() {
@@ -19,9 +24,36 @@ public class ThrownExceptionDetails<T> {
   }
 
   public void setExceptionSupplier(ExceptionSupplier<T> serviceExceptionSupplier) {
+    checkNotFrozen();
     this.exceptionSupplier = serviceExceptionSupplier;
   }
 
+  public String getErrorCode() {
+    return errorCode;
+  }
+
+  public void setErrorCode(String errorCode) {
+    checkNotFrozen();
+    this.errorCode = errorCode;
+  }
+
+  void setMessageApplier(ExceptionMessageApplier messageApplier) {
+    checkNotFrozen();
+    this.messageApplier = messageApplier;
+  }
+
+  /** Makes the details immutable, once they are shared by the decoders through the registry. */
+  void freeze() {
+    frozen = true;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new IllegalStateException(
+          "The details of a registered exception are shared by the decoders and can't be modified.");
+    }
+  }
+
   public ThrownExceptionDetails<T> withClazz(Class<? extends T> clazz) {
     setClazz(clazz);
     return this;
@@ -32,9 +64,31 @@ public class ThrownExceptionDetails<T> {
     return this;
   }
 
+  public ThrownExceptionDetails<T> withErrorCode(String errorCode) {
+    setErrorCode(errorCode);
+    return this;
+  }
+
   public T instantiate()
       throws InstantiationException, IllegalAccessException, IllegalArgumentException,
           InvocationTargetException {
     return exceptionSupplier.get();
   }
+
+  /**
+   * Instantiates the exception and sets its message through {@link
+   * com.coveo.feign.annotation.ExceptionMessageSetter} or, before Java 15, the detailMessage field
+   * of {@link Throwable}.
+   */
+  public T instantiate(String message)
+      throws InstantiationException, IllegalAccessException, IllegalArgumentException,
+          InvocationTargetException {
+    T exception = exceptionSupplier.get();
+    ExceptionMessageApplier applier =
+        messageApplier != null
+            ? messageApplier
+            : ExceptionMessageAppliers.forClass(exception.getClass());
+    applier.apply(exception, message);
+    return exception;
+  }
 }
@@ -0,0 +1,74 @@
+package com.coveo.feign;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JVM wide registry of the exceptions resolved by the {@link ReflectionErrorDecoder} instances. An
+ * exception declared thrown on many client interfaces has its constructor resolved and its error
+ * code extracted only once per decoder class and base exception class.
+ *
+ * The registered details are shared by all the decoders, the overridable methods used to resolve
+ * them, like {@link ReflectionErrorDecoder#getKeyFromException(Exception)}, must thus only depend on
+ * the decoder class. They are frozen once registered.
+ *
+ * The details are stored in their decoder class through a {@link ClassValue}, so they are collected
+ * with the class loader of the decoder class instead of keeping it alive after a redeployment.
+ */
+public class ThrownExceptionRegistry {
+  private static volatile ClassValue<
+          ConcurrentMap<List<Class<?>>, Optional<ThrownExceptionDetails<?>>>>
+      registeredExceptions = newRegistry();
+
+  private ThrownExceptionRegistry() {}
+
+  /**
+   * Returns the registered details, or resolves and registers them unless another thread already
+   * did. The details of the first registration are always returned.
+   *
+   * @param resolver Resolves the details, or returns an empty optional for an exception that can't
+   *     be instantiated.
+   * @return The registered details, or an empty optional for an exception that can't be
+   *     instantiated.
+   */
+  static Optional<ThrownExceptionDetails<?>> getOrResolve(
+      Class<?> decoderClass,
+      Class<?> baseExceptionClass,
+      Class<?> exceptionClass,
+      ExceptionSupplier<Optional<ThrownExceptionDetails<?>>> resolver)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    ConcurrentMap<List<Class<?>>, Optional<ThrownExceptionDetails<?>>> decoderExceptions =
+        registeredExceptions.get(decoderClass);
+    List<Class<?>> key = List.of(baseExceptionClass, exceptionClass);
+    Optional<ThrownExceptionDetails<?>> exceptionDetails = decoderExceptions.get(key);
+    if (exceptionDetails != null) {
+      return exceptionDetails;
+    }
+
+    exceptionDetails = resolver.get();
+    exceptionDetails.ifPresent(ThrownExceptionDetails::freeze);
+    Optional<ThrownExceptionDetails<?>> existingExceptionDetails =
+        decoderExceptions.putIfAbsent(key, exceptionDetails);
+    return existingExceptionDetails != null ? existingExceptionDetails : exceptionDetails;
+  }
+
+  /** Forgets every registered exception, for tests and environments reloading classes. */
+  public static void clear() {
+    // The values of the previous registry are dropped from the classes along with it
+    registeredExceptions = newRegistry();
+  }
+
+  private static ClassValue<ConcurrentMap<List<Class<?>>, Optional<ThrownExceptionDetails<?>>>>
+      newRegistry() {
+    return new ClassValue<>() {
+      @Override
+      protected ConcurrentMap<List<Class<?>>, Optional<ThrownExceptionDetails<?>>> computeValue(
+          Class<?> decoderClass) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+  }
+}
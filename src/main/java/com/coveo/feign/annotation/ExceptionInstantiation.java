@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Coveo Solutions Inc.
+ */
+package com.coveo.feign.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects how the {@code ReflectionErrorDecoder} creates the instances of an exception decoded very
+ * often. The requirements of the strategy are validated when the decoder is initialized. This
+ * annotation isn't inherited, each exception class opts in on its own.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ExceptionInstantiation {
+  Strategy value();
+
+  enum Strategy {
+    /** Calls the selected constructor for each decoded exception. This is the default. */
+    CONSTRUCTOR,
+    /**
+     * Clones a prototype created once, sharing its empty stack trace and its cause. The exception
+     * must implement {@link Cloneable} and declare a public {@code clone()} method.
+     */
+    PROTOTYPE,
+    /**
+     * Returns the same instance for every decoded exception, so the exception must be stateless: it
+     * must declare a public (String, Throwable, boolean, boolean) constructor, used to disable its
+     * stack trace and suppressed exceptions, and it must not implement {@link
+     * ExceptionMessageSetter} since the message of the response can't be set.
+     */
+    SINGLETON
+  }
+}
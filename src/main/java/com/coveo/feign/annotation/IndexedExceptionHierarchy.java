@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) Coveo Solutions Inc.
+ */
+package com.coveo.feign.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a base exception whose subclasses are indexed at compile time by the {@code
+ * ExceptionHierarchyIndexProcessor}. The {@code IndexedClassHierarchySupplier} then reads this index
+ * instead of scanning the classpath.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface IndexedExceptionHierarchy {
+  /**
+   * The name of the {@code static final String} constant holding the error code in each subclass.
+   * Subclasses declaring the same error code are reported at compile time.
+   */
+  String errorCodeField() default "ERROR_CODE";
+}
@@ -0,0 +1,39 @@
+package com.coveo.feign.extractor;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import feign.Response;
+import feign.codec.Decoder;
+
+/**
+ * Decodes the whole body in a response class with a Feign {@link Decoder}, then gets the key and the
+ * message from the decoded instance.
+ *
+ * @param <T> The class of the error response.
+ */
+public class DecoderErrorKeyExtractor<T> implements ErrorKeyExtractor {
+  private final Decoder decoder;
+  private final Class<T> responseClass;
+  private final Function<T, String> keyGetter;
+  private final Function<T, String> messageGetter;
+
+  public DecoderErrorKeyExtractor(
+      Decoder decoder,
+      Class<T> responseClass,
+      Function<T, String> keyGetter,
+      Function<T, String> messageGetter) {
+    this.decoder = decoder;
+    this.responseClass = responseClass;
+    this.keyGetter = keyGetter;
+    this.messageGetter = messageGetter;
+  }
+
+  @Override
+  public ErrorKey extract(Response response, byte[] body) throws IOException {
+    T decodedResponse = responseClass.cast(decoder.decode(response, responseClass));
+    return decodedResponse != null
+        ? ErrorKey.of(keyGetter.apply(decodedResponse), messageGetter.apply(decodedResponse))
+        : null;
+  }
+}
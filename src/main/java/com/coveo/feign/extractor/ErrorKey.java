@@ -0,0 +1,24 @@
+package com.coveo.feign.extractor;
+
+/** The key and the message extracted from an error response. */
+public class ErrorKey {
+  private final String key;
+  private final String message;
+
+  private ErrorKey(String key, String message) {
+    this.key = key;
+    this.message = message;
+  }
+
+  public static ErrorKey of(String key, String message) {
+    return new ErrorKey(key, message);
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,180 @@
+package com.coveo.feign.extractor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import feign.Response;
+
+/**
+ * Remembers the key and the message extracted from the recent error bodies, so the identical
+ * bodies returned by a failing server, like the same rate limiting error for every request, are
+ * only parsed once. The cached results are looked up by the status and the bytes of the body,
+ * which are compared in full so two different bodies never share a result.
+ *
+ * <p>The cache holds about {@code maxSize} results for at most {@code timeToLive}. When it is full,
+ * a single thread drops the expired results first, then arbitrary ones until the cache is down to
+ * 90% of {@code maxSize}, so the cost of the eviction is spread over the next misses even when
+ * every body is different. Only the bodies up to {@code maxBodySize} bytes are cached, the larger
+ * ones are always extracted.
+ *
+ * <p>A cache must only be used by a single decoder, since the cached results depend on its {@link
+ * ErrorKeyExtractor} and its known keys. The extractor must only depend on the status and the body
+ * of the response, not on its headers.
+ */
+public class ErrorKeyCache {
+  public static final int DEFAULT_MAX_BODY_SIZE = 8 * 1024;
+
+  private final ConcurrentMap<CacheKey, CachedErrorKey> cache = new ConcurrentHashMap<>();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+  private final int maxSize;
+  private final int sizeAfterEviction;
+  private final long timeToLiveNanos;
+  private final int maxBodySize;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  public ErrorKeyCache(int maxSize, Duration timeToLive) {
+    this(maxSize, timeToLive, DEFAULT_MAX_BODY_SIZE);
+  }
+
+  public ErrorKeyCache(int maxSize, Duration timeToLive, int maxBodySize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The maximum size of the cache must be positive.");
+    }
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("The time to live of the cache must be positive.");
+    }
+    this.maxSize = maxSize;
+    this.sizeAfterEviction = maxSize - Math.max(1, maxSize / 10);
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.maxBodySize = maxBodySize;
+  }
+
+  /**
+   * Returns the cached result of the body, or extracts it with the extractor and caches it. A null
+   * result is cached too, but not an {@link IOException}.
+   *
+   * @see ErrorKeyExtractor#extract(Response, byte[], ErrorKeyTable)
+   */
+  public ErrorKey extract(
+      Response response, byte[] body, ErrorKeyTable knownKeys, ErrorKeyExtractor extractor)
+      throws IOException {
+    if (body.length > maxBodySize) {
+      return extractor.extract(response, body, knownKeys);
+    }
+
+    CacheKey cacheKey = new CacheKey(response.status(), body);
+    long now = System.nanoTime();
+    CachedErrorKey cachedErrorKey = cache.get(cacheKey);
+    if (cachedErrorKey != null) {
+      if (now - cachedErrorKey.expiresAtNanos < 0) {
+        hitCount.increment();
+        return cachedErrorKey.errorKey;
+      }
+      if (cache.remove(cacheKey, cachedErrorKey)) {
+        evictionCount.increment();
+      }
+    }
+
+    missCount.increment();
+    ErrorKey errorKey = extractor.extract(response, body, knownKeys);
+    if (cache.size() >= maxSize) {
+      evict(now);
+    }
+    cache.put(cacheKey, new CachedErrorKey(errorKey, now + timeToLiveNanos));
+    return errorKey;
+  }
+
+  private void evict(long now) {
+    // The other threads add their result meanwhile instead of waiting for the eviction
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      for (Iterator<CachedErrorKey> it = cache.values().iterator(); it.hasNext(); ) {
+        if (now - it.next().expiresAtNanos >= 0) {
+          it.remove();
+          evictionCount.increment();
+        }
+      }
+      Iterator<CacheKey> it = cache.keySet().iterator();
+      while (cache.size() > sizeAfterEviction && it.hasNext()) {
+        it.next();
+        it.remove();
+        evictionCount.increment();
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /** @return The number of bodies whose key was found in the cache. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** @return The number of bodies whose key had to be extracted, the larger bodies excluded. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** @return The number of results dropped because they expired or the cache was full. */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** @return The number of results currently cached, including the expired ones not yet dropped. */
+  public int size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  private static class CacheKey {
+    private final int status;
+    private final byte[] body;
+    private final int hash;
+
+    CacheKey(int status, byte[] body) {
+      this.status = status;
+      this.body = body;
+      this.hash = 31 * status + Arrays.hashCode(body);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return hash == other.hash && status == other.status && Arrays.equals(body, other.body);
+    }
+  }
+
+  private static class CachedErrorKey {
+    private final ErrorKey errorKey;
+    private final long expiresAtNanos;
+
+    CachedErrorKey(ErrorKey errorKey, long expiresAtNanos) {
+      this.errorKey = errorKey;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.coveo.feign.extractor;
+
+import java.io.IOException;
+
+import feign.Response;
+
+/**
+ * Extracts the key used to find the exception to throw, and the message to give it, from an error
+ * response.
+ */
+@FunctionalInterface
+public interface ErrorKeyExtractor {
+  /**
+   * @param response The error response, whose body is already buffered.
+   * @param body The buffered body of the response.
+   * @return The key and the message of the error, or null if the response doesn't hold any key.
+   * @throws IOException If the body can't be read, the response is then given to the fallback
+   *     {@link feign.codec.ErrorDecoder}.
+   */
+  ErrorKey extract(Response response, byte[] body) throws IOException;
+
+  /**
+   * Extracts the key knowing the keys of the decoder, so the lookup of the key can be done on the
+   * raw body and the unknown keys can be rejected early. The keys known by the decoder are ignored
+   * by default.
+   *
+   * @param knownKeys The keys known by the decoder.
+   * @return The key and the message of the error, or null if the response doesn't hold any key. A
+   *     returned key may be unknown to the decoder.
+   */
+  default ErrorKey extract(Response response, byte[] body, ErrorKeyTable knownKeys)
+      throws IOException {
+    return extract(response, body);
+  }
+}
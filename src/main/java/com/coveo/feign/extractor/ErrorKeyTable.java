@@ -0,0 +1,10 @@
+package com.coveo.feign.extractor;
+
+/**
+ * The error keys known by a decoder, which can be looked up straight from a parser buffer without
+ * building a {@link String} for the keys that will be discarded anyway.
+ */
+public interface ErrorKeyTable {
+  /** @return The known key made of the characters, or null if the key isn't known. */
+  String findKey(char[] chars, int offset, int length);
+}
@@ -0,0 +1,107 @@
+package com.coveo.feign.extractor;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+
+import feign.Response;
+
+/**
+ * Extracts the key and the message of an error response by streaming over its top level fields
+ * with a Jackson {@link JsonParser}. The parsing stops as soon as both fields are found and never
+ * goes further than the configured number of bytes, so no object tree is ever built.
+ */
+public class JacksonStreamingErrorKeyExtractor implements ErrorKeyExtractor {
+  public static final int DEFAULT_MAX_PARSED_BYTES = 8 * 1024;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final String keyFieldName;
+  private final String messageFieldName;
+  private final int maxParsedBytes;
+
+  public JacksonStreamingErrorKeyExtractor(String keyFieldName, String messageFieldName) {
+    this(keyFieldName, messageFieldName, DEFAULT_MAX_PARSED_BYTES);
+  }
+
+  public JacksonStreamingErrorKeyExtractor(
+      String keyFieldName, String messageFieldName, int maxParsedBytes) {
+    if (maxParsedBytes <= 0) {
+      throw new IllegalArgumentException("The maximum number of parsed bytes must be positive.");
+    }
+    this.keyFieldName = keyFieldName;
+    this.messageFieldName = messageFieldName;
+    this.maxParsedBytes = maxParsedBytes;
+  }
+
+  /**
+   * @return The key and the message, or null if the body isn't a JSON object declaring the key
+   *     field in its first bytes.
+   * @throws IOException If the body isn't valid JSON.
+   */
+  @Override
+  public ErrorKey extract(Response response, byte[] body) throws IOException {
+    return extract(response, body, null);
+  }
+
+  /**
+   * Looks the key up in the known keys straight from the parser buffer, so a known key is never
+   * copied in a new {@link String}. The parsing stops on an unknown key, which is returned without
+   * its message since the response will be given to the fallback decoder anyway.
+   *
+   * @return The key and the message, or null if the key is missing.
+   */
+  @Override
+  public ErrorKey extract(Response response, byte[] body, ErrorKeyTable knownKeys)
+      throws IOException {
+    String key = null;
+    String message = null;
+    try (JsonParser parser =
+            JSON_FACTORY.createParser(body, 0, Math.min(body.length, maxParsedBytes))) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      boolean keyFound = false;
+      boolean messageFound = false;
+      while (!(keyFound && messageFound) && parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        if (!keyFound && keyFieldName.equals(fieldName)) {
+          key = knownKeys == null ? parser.getValueAsString() : findKnownKey(parser, knownKeys);
+          if (key == null) {
+            // The unknown key is still reported, and its message is only read by the fallback
+            String unknownKey = parser.getValueAsString();
+            return unknownKey == null ? null : ErrorKey.of(unknownKey, null);
+          }
+          keyFound = true;
+        } else if (!messageFound && messageFieldName.equals(fieldName)) {
+          // An object or an array isn't a message, and its fields must not be read as top level ones
+          message = parser.getValueAsString();
+          messageFound = true;
+          parser.skipChildren();
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } catch (JsonEOFException e) {
+      // The body was cut at the maximum number of parsed bytes, keep what was found before it
+      if (key == null) {
+        throw e;
+      }
+    }
+    return key == null ? null : ErrorKey.of(key, message);
+  }
+
+  private static String findKnownKey(JsonParser parser, ErrorKeyTable knownKeys)
+      throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      return knownKeys.findKey(
+          parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+    String key = parser.getValueAsString();
+    return key == null ? null : knownKeys.findKey(key.toCharArray(), 0, key.length());
+  }
+}
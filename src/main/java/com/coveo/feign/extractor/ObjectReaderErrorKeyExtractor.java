@@ -0,0 +1,50 @@
+package com.coveo.feign.extractor;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import feign.Response;
+
+/**
+ * Binds the body in a response class with a Jackson {@link ObjectReader}, then gets the key and the
+ * message from the bound instance. UTF-8 bodies are read straight from their bytes.
+ *
+ * @param <T> The class of the error response.
+ */
+public class ObjectReaderErrorKeyExtractor<T> implements ErrorKeyExtractor {
+  private final ObjectReader objectReader;
+  private final Function<T, String> keyGetter;
+  private final Function<T, String> messageGetter;
+
+  /** Uses the {@link SharedObjectReaders shared reader} of the response class. */
+  public ObjectReaderErrorKeyExtractor(
+      Class<T> responseClass, Function<T, String> keyGetter, Function<T, String> messageGetter) {
+    this(SharedObjectReaders.forType(responseClass), keyGetter, messageGetter);
+  }
+
+  public ObjectReaderErrorKeyExtractor(
+      ObjectReader objectReader, Function<T, String> keyGetter, Function<T, String> messageGetter) {
+    this.objectReader = objectReader;
+    this.keyGetter = keyGetter;
+    this.messageGetter = messageGetter;
+  }
+
+  @Override
+  public ErrorKey extract(Response response, byte[] body) throws IOException {
+    if (body.length == 0) {
+      return null;
+    }
+    Charset charset = response.charset();
+    T boundResponse =
+        StandardCharsets.UTF_8.equals(charset)
+            ? objectReader.readValue(body)
+            : objectReader.readValue(new String(body, charset));
+    return boundResponse != null
+        ? ErrorKey.of(keyGetter.apply(boundResponse), messageGetter.apply(boundResponse))
+        : null;
+  }
+}
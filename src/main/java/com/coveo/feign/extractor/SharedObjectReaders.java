@@ -0,0 +1,29 @@
+package com.coveo.feign.extractor;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * JVM wide {@link ObjectReader} instances, built once per type from a single {@link ObjectMapper}
+ * configured like Feign's {@code JacksonDecoder}. They are thread-safe and share the same
+ * deserializer caches, so every decoder of a given error response class uses the same reader.
+ */
+public class SharedObjectReaders {
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  // Stored in the classes themselves, so a reader never keeps the class loader of its type alive
+  private static final ClassValue<ObjectReader> OBJECT_READERS =
+      new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+          return OBJECT_MAPPER.readerFor(type);
+        }
+      };
+
+  private SharedObjectReaders() {}
+
+  public static ObjectReader forType(Class<?> type) {
+    return OBJECT_READERS.get(type);
+  }
+}
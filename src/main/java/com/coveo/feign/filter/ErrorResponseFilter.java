@@ -0,0 +1,137 @@
+package com.coveo.feign.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import com.coveo.feign.util.Pair;
+
+import feign.Response;
+
+/**
+ * Decides which error responses are worth decoding by reflection, based on their status and their
+ * {@code Content-Type} header. The other responses go straight to the fallback {@link
+ * feign.codec.ErrorDecoder}, which avoids parsing bodies such as HTML pages from load balancers.
+ *
+ * An empty filter accepts every response. Each content type can either be a full media type like
+ * {@code application/json} or a wildcard subtype like {@code application/*}.
+ */
+public class ErrorResponseFilter {
+  private static final String CONTENT_TYPE_HEADER = "Content-Type";
+
+  private List<String> contentTypes = new ArrayList<>();
+  private List<Pair<Integer, Integer>> statusRanges = new ArrayList<>();
+  private boolean missingContentTypeAccepted = true;
+
+  /** @return A filter accepting every response, which is the default of the decoder. */
+  public static ErrorResponseFilter acceptAll() {
+    return new ErrorResponseFilter();
+  }
+
+  /**
+   * @return A filter accepting the 4xx and 5xx responses with a JSON or a missing content type.
+   */
+  public static ErrorResponseFilter jsonErrors() {
+    return new ErrorResponseFilter()
+        .withContentTypes("application/json", "application/problem+json")
+        .withStatusRange(400, 599);
+  }
+
+  public boolean accepts(Response response) {
+    return isStatusAccepted(response.status()) && isContentTypeAccepted(getContentType(response));
+  }
+
+  private boolean isStatusAccepted(int status) {
+    if (statusRanges.isEmpty()) {
+      return true;
+    }
+    for (Pair<Integer, Integer> statusRange : statusRanges) {
+      if (status >= statusRange.getLeft() && status <= statusRange.getRight()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isContentTypeAccepted(String contentType) {
+    if (contentType == null) {
+      return missingContentTypeAccepted;
+    }
+    if (contentTypes.isEmpty()) {
+      return true;
+    }
+    for (String acceptedContentType : contentTypes) {
+      if (acceptedContentType.endsWith("/*")
+          ? contentType.startsWith(
+              acceptedContentType.substring(0, acceptedContentType.length() - 1))
+          : contentType.equals(acceptedContentType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getContentType(Response response) {
+    Collection<String> values = response.headers().get(CONTENT_TYPE_HEADER);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    String contentType = values.iterator().next();
+    int parametersIndex = contentType.indexOf(';');
+    if (parametersIndex != -1) {
+      contentType = contentType.substring(0, parametersIndex);
+    }
+    contentType = contentType.trim().toLowerCase(Locale.ROOT);
+    return contentType.isEmpty() ? null : contentType;
+  }
+
+  public List<String> getContentTypes() {
+    return contentTypes;
+  }
+
+  public void setContentTypes(List<String> contentTypes) {
+    this.contentTypes = new ArrayList<>();
+    contentTypes.forEach(
+        contentType -> this.contentTypes.add(contentType.trim().toLowerCase(Locale.ROOT)));
+  }
+
+  public List<Pair<Integer, Integer>> getStatusRanges() {
+    return statusRanges;
+  }
+
+  public void setStatusRanges(List<Pair<Integer, Integer>> statusRanges) {
+    this.statusRanges = new ArrayList<>(statusRanges);
+  }
+
+  public boolean isMissingContentTypeAccepted() {
+    return missingContentTypeAccepted;
+  }
+
+  public void setMissingContentTypeAccepted(boolean missingContentTypeAccepted) {
+    this.missingContentTypeAccepted = missingContentTypeAccepted;
+  }
+
+  public ErrorResponseFilter withContentTypes(String... contentTypes) {
+    setContentTypes(List.of(contentTypes));
+    return this;
+  }
+
+  /**
+   * Adds a range of accepted statuses, both bounds included. Every status is accepted until a range
+   * is added.
+   */
+  public ErrorResponseFilter withStatusRange(int from, int to) {
+    if (from > to) {
+      throw new IllegalArgumentException(
+          String.format("Invalid status range from %s to %s.", from, to));
+    }
+    statusRanges.add(Pair.of(from, to));
+    return this;
+  }
+
+  public ErrorResponseFilter withMissingContentTypeAccepted(boolean missingContentTypeAccepted) {
+    setMissingContentTypeAccepted(missingContentTypeAccepted);
+    return this;
+  }
+}
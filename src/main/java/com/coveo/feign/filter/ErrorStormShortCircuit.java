@@ -0,0 +1,157 @@
+package com.coveo.feign.filter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.coveo.feign.metrics.DecodeOutcome;
+
+/**
+ * Stops reading the error responses of a method key while nearly all of them are server failures
+ * that can't be decoded, like when the server is down and only returns pages from its load
+ * balancer. Such responses are then given straight to the fallback {@link feign.codec.ErrorDecoder}
+ * without their body, so the callers still get the {@code FeignException} of their status, and a
+ * {@code RetryableException} when they have a {@code Retry-After} header.
+ *
+ * <p>The responses of every method key are counted in windows of {@code windowSize} responses. A
+ * response is a server failure when its body couldn't be read, or when it has a 5xx status and a
+ * body that couldn't be decoded, parsed or that was rejected by the {@link ErrorResponseFilter}.
+ * The 4xx responses and the responses without a body are never failures, even when their body
+ * isn't JSON, so a method whose expected errors can't be decoded isn't short-circuited. When the
+ * ratio of failures in a window
+ * reaches {@code failureRatioThreshold}, the method key is short-circuited for the {@code
+ * cooldown}. Then a single response is decoded again as a probe: if it isn't a server failure, the
+ * method key is back to normal, otherwise it is short-circuited for another cooldown.
+ *
+ * <p>A short circuit must only be used by a single decoder.
+ */
+public class ErrorStormShortCircuit {
+  public static final int DEFAULT_WINDOW_SIZE = 100;
+  public static final double DEFAULT_FAILURE_RATIO_THRESHOLD = 0.9;
+  public static final Duration DEFAULT_COOLDOWN = Duration.ofSeconds(10);
+
+  private static final long RESPONSE = 1L << 32;
+  private static final long FAILURE = 1L;
+
+  private final ConcurrentMap<String, MethodState> methodStates = new ConcurrentHashMap<>();
+  private final int windowSize;
+  private final double failureRatioThreshold;
+  private final long cooldownNanos;
+  private final LongAdder shortCircuitedCount = new LongAdder();
+
+  public ErrorStormShortCircuit() {
+    this(DEFAULT_WINDOW_SIZE, DEFAULT_FAILURE_RATIO_THRESHOLD, DEFAULT_COOLDOWN);
+  }
+
+  public ErrorStormShortCircuit(int windowSize, double failureRatioThreshold, Duration cooldown) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("The window size must be positive.");
+    }
+    if (failureRatioThreshold <= 0 || failureRatioThreshold > 1) {
+      throw new IllegalArgumentException("The failure ratio threshold must be in ]0, 1].");
+    }
+    if (cooldown.isNegative() || cooldown.isZero()) {
+      throw new IllegalArgumentException("The cooldown must be positive.");
+    }
+    this.windowSize = windowSize;
+    this.failureRatioThreshold = failureRatioThreshold;
+    this.cooldownNanos = cooldown.toNanos();
+  }
+
+  /**
+   * @return Whether the response of the method key must be short-circuited. Once the cooldown is
+   *     over, false is returned to a single caller, which must then report the outcome of its probe.
+   */
+  public boolean isShortCircuited(String methodKey) {
+    MethodState methodState = methodStates.get(methodKey);
+    if (methodState == null) {
+      return false;
+    }
+    long openUntil = methodState.openUntilNanos.get();
+    if (openUntil == 0) {
+      return false;
+    }
+    long now = System.nanoTime();
+    // The caller winning the race at the end of the cooldown probes, and holds off the others for
+    // another cooldown in case its probe never reports back
+    if (now - openUntil >= 0
+        && methodState.openUntilNanos.compareAndSet(openUntil, now + cooldownNanos)) {
+      return false;
+    }
+    shortCircuitedCount.increment();
+    return true;
+  }
+
+  /** Reports the status and the outcome of a response that wasn't short-circuited. */
+  public void record(String methodKey, int status, DecodeOutcome outcome) {
+    boolean failure = isServerFailure(status, outcome);
+    MethodState methodState = getMethodState(methodKey);
+    if (methodState.openUntilNanos.get() != 0) {
+      // Only the probes are decoded while the method key is short-circuited
+      if (!failure) {
+        methodState.openUntilNanos.set(0);
+      }
+      return;
+    }
+
+    long window = methodState.window.addAndGet(failure ? RESPONSE + FAILURE : RESPONSE);
+    if (window >>> 32 >= windowSize && methodState.window.compareAndSet(window, 0)) {
+      int failureCount = (int) window;
+      if (failureCount >= failureRatioThreshold * (window >>> 32)) {
+        methodState.openUntilNanos.set(System.nanoTime() + cooldownNanos);
+      }
+    }
+  }
+
+  /**
+   * @return Whether the response is a server failure counted toward an error storm, i.e. its body
+   *     couldn't be read, or it has a 5xx status and a body that couldn't be decoded, parsed or
+   *     that was filtered out.
+   */
+  public static boolean isServerFailure(int status, DecodeOutcome outcome) {
+    switch (outcome) {
+      case IO_ERROR:
+        return true;
+      case UNKNOWN_KEY:
+      case NO_KEY:
+      case PARSE_ERROR:
+      case FILTERED:
+      case OVERSIZED_BODY:
+        return status >= 500;
+      default:
+        return false;
+    }
+  }
+
+  /** @return Whether the responses of the method key are currently short-circuited. */
+  public boolean isOpen(String methodKey) {
+    MethodState methodState = methodStates.get(methodKey);
+    return methodState != null && methodState.openUntilNanos.get() != 0;
+  }
+
+  /** @return The number of responses short-circuited so far. */
+  public long getShortCircuitedCount() {
+    return shortCircuitedCount.sum();
+  }
+
+  private MethodState getMethodState(String methodKey) {
+    MethodState methodState = methodStates.get(methodKey);
+    if (methodState == null) {
+      MethodState newMethodState = new MethodState();
+      methodState = methodStates.putIfAbsent(methodKey, newMethodState);
+      if (methodState == null) {
+        methodState = newMethodState;
+      }
+    }
+    return methodState;
+  }
+
+  private static class MethodState {
+    // The number of responses in the high bits and of failures in the low bits of the window
+    private final AtomicLong window = new AtomicLong();
+    // 0 while the responses are decoded, otherwise the end of the cooldown
+    private final AtomicLong openUntilNanos = new AtomicLong();
+  }
+}
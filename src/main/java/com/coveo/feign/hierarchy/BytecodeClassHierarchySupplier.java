@@ -0,0 +1,300 @@
+package com.coveo.feign.hierarchy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.coveo.feign.metrics.FlightRecorderEvents;
+import com.coveo.feign.util.ComputeOnceCache;
+
+/**
+ * Scans the classpath for the subclasses of a base class without Spring. The headers of the class
+ * files of the base package are read in parallel straight from the directories and jars (through
+ * the NIO zip file system) found by the class loader to link every class to its super class, and
+ * only the concrete subclasses found are loaded. Only the start of each class file holding its
+ * header is read, and the entries that can't be read are skipped. Like the {@link
+ * CachedSpringClassHierarchySupplier}, a base class and base package pair is only scanned once per
+ * JVM.
+ */
+public class BytecodeClassHierarchySupplier implements ClassHierarchySupplier {
+  private static final Logger logger =
+      LoggerFactory.getLogger(BytecodeClassHierarchySupplier.class);
+
+  private static final String CLASS_FILE_SUFFIX = ".class";
+  private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+  private static final ComputeOnceCache<List<Object>, SubClassIndex> baseClassSubClassesCache =
+      new ComputeOnceCache<>();
+
+  private SubClassIndex subClassIndex;
+
+  public BytecodeClassHierarchySupplier(Class<?> baseClass, String basePackage) {
+    String scannedPackage = basePackage == null ? "" : basePackage;
+    subClassIndex =
+        baseClassSubClassesCache.get(
+            getCacheKey(baseClass, scannedPackage),
+            () -> new SubClassIndex(scanSubClasses(baseClass, scannedPackage)));
+  }
+
+  @Override
+  public Set<Class<?>> getSubClasses(Class<?> clazz, String basePackage) {
+    return subClassIndex.getSubClasses(clazz);
+  }
+
+  /** Forgets the subclasses scanned for the base class in the base package. */
+  public static void invalidate(Class<?> baseClass, String basePackage) {
+    baseClassSubClassesCache.invalidate(
+        getCacheKey(baseClass, basePackage == null ? "" : basePackage));
+  }
+
+  /** Forgets every scanned subclass, for tests and environments reloading classes. */
+  public static void invalidateAll() {
+    baseClassSubClassesCache.invalidateAll();
+  }
+
+  private static Set<Class<?>> scanSubClasses(Class<?> baseClass, String basePackage)
+      throws IOException {
+    Object event = FlightRecorderEvents.beginClassHierarchyScan();
+    long start = System.nanoTime();
+    ClassLoader classLoader = getClassLoader(baseClass);
+    String packagePath = basePackage.replace('.', '/');
+
+    Map<Path, FileSystem> jarFileSystems = new LinkedHashMap<>();
+    try {
+      List<Path> classFiles = new ArrayList<>();
+      for (Path packageDirectory :
+          getPackageDirectories(classLoader, packagePath, jarFileSystems)) {
+        try (Stream<Path> files = Files.walk(packageDirectory)) {
+          files
+              .filter(file -> file.toString().endsWith(CLASS_FILE_SUFFIX))
+              .forEach(classFiles::add);
+        } catch (IOException | UncheckedIOException e) {
+          logger.warn(
+              "Could not list the class files of '{}', it will be skipped.", packageDirectory, e);
+        }
+      }
+
+      Map<String, ClassFileHeader> headers =
+          classFiles
+              .parallelStream()
+              .map(BytecodeClassHierarchySupplier::readHeader)
+              .filter(header -> header != null)
+              .collect(
+                  Collectors.toMap(
+                      ClassFileHeader::getClassName,
+                      Function.identity(),
+                      (first, shadowed) -> first));
+
+      Set<Class<?>> subClasses = new HashSet<>();
+      Map<String, Boolean> isSubClassByName = new HashMap<>();
+      for (ClassFileHeader header : headers.values()) {
+        if (!header.isAbstract()
+            && isSubClass(
+                header.getClassName(), baseClass, classLoader, headers, isSubClassByName)) {
+          Class<?> subClass = loadClass(header.getClassName(), classLoader);
+          if (isIndependent(subClass)) {
+            subClasses.add(subClass);
+          }
+        }
+      }
+      logger.debug(
+          "Found '{}' subClasses of '{}' in '{}' class files in {} ms.",
+          subClasses.size(),
+          baseClass.getName(),
+          headers.size(),
+          (System.nanoTime() - start) / 1_000_000);
+      FlightRecorderEvents.endClassHierarchyScan(
+          event, BytecodeClassHierarchySupplier.class, baseClass, basePackage, subClasses.size());
+      return Collections.unmodifiableSet(subClasses);
+    } finally {
+      // The nested jars are closed before the jars holding them
+      List<FileSystem> openedJars = new ArrayList<>(jarFileSystems.values());
+      Collections.reverse(openedJars);
+      for (FileSystem jarFileSystem : openedJars) {
+        try {
+          jarFileSystem.close();
+        } catch (IOException e) {
+          logger.debug("Could not close the jar '{}'.", jarFileSystem, e);
+        }
+      }
+    }
+  }
+
+  private static Set<Path> getPackageDirectories(
+      ClassLoader classLoader, String packagePath, Map<Path, FileSystem> jarFileSystems)
+      throws IOException {
+    Set<Path> packageDirectories = new LinkedHashSet<>();
+    for (URL url : Collections.list(classLoader.getResources(packagePath))) {
+      addPackageDirectory(url, packagePath, packagePath, jarFileSystems, packageDirectories);
+    }
+    if (packagePath.isEmpty()) {
+      // ClassLoader.getResources("") only returns the directories of the classpath, the jars are
+      // found through their manifest
+      for (URL url : Collections.list(classLoader.getResources(MANIFEST))) {
+        addPackageDirectory(url, MANIFEST, packagePath, jarFileSystems, packageDirectories);
+      }
+    }
+    return packageDirectories;
+  }
+
+  private static void addPackageDirectory(
+      URL url,
+      String resourceName,
+      String packagePath,
+      Map<Path, FileSystem> jarFileSystems,
+      Set<Path> packageDirectories) {
+    try {
+      Path packageDirectory =
+          "jar".equals(url.getProtocol())
+              ? getJarPackageDirectory(url, packagePath, jarFileSystems)
+              : getPackageDirectory(Paths.get(url.toURI()), resourceName, packagePath);
+      if (packageDirectory != null && Files.isDirectory(packageDirectory)) {
+        packageDirectories.add(packageDirectory);
+      }
+    } catch (
+        URISyntaxException | IOException | IllegalArgumentException | FileSystemNotFoundException
+                | ProviderNotFoundException | UnsupportedOperationException
+            e) {
+      logger.warn("Classpath entry '{}' is not supported, it will be skipped.", url, e);
+    }
+  }
+
+  private static Path getPackageDirectory(Path resource, String resourceName, String packagePath) {
+    Path root = resource.toAbsolutePath().normalize();
+    for (String ignored : resourceName.isEmpty() ? new String[0] : resourceName.split("/")) {
+      root = root.getParent();
+    }
+    return root == null ? null : root.resolve(packagePath);
+  }
+
+  /**
+   * Opens the jar of a {@code jar:} URL, following the jars and directories nested in it like in
+   * the {@code jar:file:app.jar!/BOOT-INF/lib/lib.jar!/com/example} URLs of Spring Boot.
+   */
+  private static Path getJarPackageDirectory(
+      URL url, String packagePath, Map<Path, FileSystem> jarFileSystems)
+      throws URISyntaxException, IOException {
+    String[] parts = url.getPath().split("!/", -1);
+    Path jar = Paths.get(new URI(parts[0]));
+    String prefix = "/";
+    for (int i = 1; i < parts.length - 1; i++) {
+      Path nested = openJar(jar, jarFileSystems).getPath(prefix + parts[i]);
+      if (Files.isRegularFile(nested)) {
+        jar = nested;
+        prefix = "/";
+      } else {
+        prefix += parts[i].endsWith("/") ? parts[i] : parts[i] + "/";
+      }
+    }
+    return openJar(jar, jarFileSystems).getPath(prefix + packagePath);
+  }
+
+  private static FileSystem openJar(Path jar, Map<Path, FileSystem> jarFileSystems)
+      throws IOException {
+    Path key =
+        jar.getFileSystem() == FileSystems.getDefault() ? jar.toAbsolutePath().normalize() : jar;
+    FileSystem jarFileSystem = jarFileSystems.get(key);
+    if (jarFileSystem == null) {
+      jarFileSystem = FileSystems.newFileSystem(jar, (ClassLoader) null);
+      jarFileSystems.put(key, jarFileSystem);
+    }
+    return jarFileSystem;
+  }
+
+  private static ClassFileHeader readHeader(Path classFile) {
+    try (InputStream inputStream = Files.newInputStream(classFile)) {
+      return ClassFileHeader.read(inputStream);
+    } catch (IOException e) {
+      logger.warn("Could not read the class file '{}', it will be skipped.", classFile.toUri(), e);
+      return null;
+    }
+  }
+
+  private static boolean isSubClass(
+      String className,
+      Class<?> baseClass,
+      ClassLoader classLoader,
+      Map<String, ClassFileHeader> headers,
+      Map<String, Boolean> isSubClassByName) {
+    if (className == null) {
+      return false;
+    }
+    if (className.equals(baseClass.getName())) {
+      return true;
+    }
+    Boolean isSubClass = isSubClassByName.get(className);
+    if (isSubClass == null) {
+      ClassFileHeader header = headers.get(className);
+      if (header != null) {
+        isSubClass =
+            isSubClass(
+                header.getSuperClassName(), baseClass, classLoader, headers, isSubClassByName);
+      } else {
+        // The super class is outside of the scanned package, only then is it loaded to be checked
+        isSubClass = isLoadableSubClass(className, baseClass, classLoader);
+      }
+      isSubClassByName.put(className, isSubClass);
+    }
+    return isSubClass;
+  }
+
+  private static boolean isLoadableSubClass(
+      String className, Class<?> baseClass, ClassLoader classLoader) {
+    try {
+      return baseClass.isAssignableFrom(Class.forName(className, false, classLoader));
+    } catch (ClassNotFoundException | LinkageError e) {
+      logger.debug("Could not load the super class '{}', it will be skipped.", className, e);
+      return false;
+    }
+  }
+
+  private static Class<?> loadClass(String className, ClassLoader classLoader) {
+    try {
+      return Class.forName(className, false, classLoader);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(
+          String.format("Could not load child class '%s'.", className), e);
+    }
+  }
+
+  private static boolean isIndependent(Class<?> clazz) {
+    return !clazz.isAnonymousClass()
+        && !clazz.isLocalClass()
+        && (!clazz.isMemberClass() || Modifier.isStatic(clazz.getModifiers()));
+  }
+
+  private static ClassLoader getClassLoader(Class<?> baseClass) {
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    return contextClassLoader != null ? contextClassLoader : baseClass.getClassLoader();
+  }
+
+  private static List<Object> getCacheKey(Class<?> baseClass, String basePackage) {
+    return List.of(baseClass, basePackage);
+  }
+}
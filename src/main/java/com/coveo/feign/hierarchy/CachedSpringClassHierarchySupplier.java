@@ -1,10 +1,9 @@
 package com.coveo.feign.hierarchy;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,44 +11,69 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 
+import com.coveo.feign.metrics.FlightRecorderEvents;
+import com.coveo.feign.util.ComputeOnceCache;
+
 public class CachedSpringClassHierarchySupplier implements ClassHierarchySupplier {
   private static final Logger logger =
       LoggerFactory.getLogger(CachedSpringClassHierarchySupplier.class);
 
-  private static Map<Class<?>, Set<Class<?>>> baseClassSubClassesCache = new HashMap<>();
+  private static final ComputeOnceCache<List<Object>, SubClassIndex> baseClassSubClassesCache =
+      new ComputeOnceCache<>();
 
-  private Set<Class<?>> subClasses;
+  private SubClassIndex subClassIndex;
 
   public CachedSpringClassHierarchySupplier(Class<?> baseClass, String basePackage) {
-    if (!baseClassSubClassesCache.containsKey(baseClass)) {
-      logger.debug(
-          "Cache miss for the SpringClassHierarchySupplier using key '{}' and base package '{}'.",
-          baseClass,
-          basePackage);
-      ClassPathScanningCandidateComponentProvider provider =
-          new ClassPathScanningCandidateComponentProvider(false);
-      provider.addIncludeFilter(new AssignableTypeFilter(baseClass));
-
-      Set<Class<?>> subClasses = new HashSet<>();
-      for (BeanDefinition beanDefinition : provider.findCandidateComponents(basePackage)) {
-        try {
-          subClasses.add(Class.forName(beanDefinition.getBeanClassName()));
-        } catch (ClassNotFoundException e) {
-          throw new IllegalStateException(
-              String.format("Could not load child class '%s'.", beanDefinition.getBeanClassName()),
-              e);
-        }
-      }
-      baseClassSubClassesCache.put(baseClass, subClasses);
-      logger.debug("Found '{}' subClasses.", subClasses.size());
-    } else {
-      logger.debug("Cache hit for the SpringClassHierarchySupplier using key '{}'.", baseClass);
-    }
-    subClasses = baseClassSubClassesCache.get(baseClass);
+    String scannedPackage = basePackage == null ? "" : basePackage;
+    subClassIndex =
+        baseClassSubClassesCache.get(
+            getCacheKey(baseClass, scannedPackage),
+            () -> new SubClassIndex(scanSubClasses(baseClass, scannedPackage)));
   }
 
   @Override
   public Set<Class<?>> getSubClasses(Class<?> clazz, String basePackage) {
-    return subClasses.stream().filter(clazz::isAssignableFrom).collect(Collectors.toSet());
+    return subClassIndex.getSubClasses(clazz);
+  }
+
+  /** Forgets the subclasses scanned for the base class in the base package. */
+  public static void invalidate(Class<?> baseClass, String basePackage) {
+    baseClassSubClassesCache.invalidate(
+        getCacheKey(baseClass, basePackage == null ? "" : basePackage));
+  }
+
+  /** Forgets every scanned subclass, for tests and environments reloading classes. */
+  public static void invalidateAll() {
+    baseClassSubClassesCache.invalidateAll();
+  }
+
+  private static Set<Class<?>> scanSubClasses(Class<?> baseClass, String basePackage) {
+    logger.debug(
+        "Cache miss for the SpringClassHierarchySupplier using key '{}' and base package '{}'.",
+        baseClass,
+        basePackage);
+    Object event = FlightRecorderEvents.beginClassHierarchyScan();
+    ClassPathScanningCandidateComponentProvider provider =
+        new ClassPathScanningCandidateComponentProvider(false);
+    provider.addIncludeFilter(new AssignableTypeFilter(baseClass));
+
+    Set<Class<?>> subClasses = new HashSet<>();
+    for (BeanDefinition beanDefinition : provider.findCandidateComponents(basePackage)) {
+      try {
+        subClasses.add(Class.forName(beanDefinition.getBeanClassName()));
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException(
+            String.format("Could not load child class '%s'.", beanDefinition.getBeanClassName()),
+            e);
+      }
+    }
+    logger.debug("Found '{}' subClasses.", subClasses.size());
+    FlightRecorderEvents.endClassHierarchyScan(
+        event, CachedSpringClassHierarchySupplier.class, baseClass, basePackage, subClasses.size());
+    return Collections.unmodifiableSet(subClasses);
+  }
+
+  private static List<Object> getCacheKey(Class<?> baseClass, String basePackage) {
+    return List.of(baseClass, basePackage);
   }
 }
@@ -0,0 +1,199 @@
+package com.coveo.feign.hierarchy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The name, super class name and access flags of a class file, read from its header without
+ * loading the class. Only the constant pool is walked, the fields, methods and attributes that
+ * follow the header are never read.
+ */
+class ClassFileHeader {
+  private static final int INITIAL_PREFIX_SIZE = 2 * 1024;
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int ACC_INTERFACE = 0x0200;
+  private static final int ACC_ABSTRACT = 0x0400;
+  private static final int ACC_ANNOTATION = 0x2000;
+  private static final int ACC_MODULE = 0x8000;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  private final String className;
+  private final String superClassName;
+  private final int accessFlags;
+
+  private ClassFileHeader(String className, String superClassName, int accessFlags) {
+    this.className = className;
+    this.superClassName = superClassName;
+    this.accessFlags = accessFlags;
+  }
+
+  /**
+   * Reads the header from the start of the stream only, the rest of the class file is never read
+   * nor inflated from its jar. The prefix read is doubled until it holds the whole header.
+   *
+   * @return The header of the class file, or {@code null} if the stream isn't a class file or
+   *     describes an interface, an annotation or a module.
+   */
+  static ClassFileHeader read(InputStream classFile) throws IOException {
+    byte[] prefix = new byte[INITIAL_PREFIX_SIZE];
+    int length = classFile.readNBytes(prefix, 0, prefix.length);
+    while (true) {
+      try {
+        return parse(ByteBuffer.wrap(prefix, 0, length));
+      } catch (BufferUnderflowException e) {
+        if (length < prefix.length) {
+          // The whole class file was read, it is truncated
+          return null;
+        }
+        prefix = Arrays.copyOf(prefix, prefix.length * 2);
+        length += classFile.readNBytes(prefix, length, prefix.length - length);
+      }
+    }
+  }
+
+  private static ClassFileHeader parse(ByteBuffer classFile) {
+    try {
+      if (classFile.getInt() != MAGIC) {
+        return null;
+      }
+      classFile.getShort(); // minor_version
+      classFile.getShort(); // major_version
+
+      int constantPoolCount = Short.toUnsignedInt(classFile.getShort());
+      int[] classNameIndexes = new int[constantPoolCount];
+      int[] utf8Offsets = new int[constantPoolCount];
+      for (int i = 1; i < constantPoolCount; i++) {
+        int tag = Byte.toUnsignedInt(classFile.get());
+        switch (tag) {
+          case CONSTANT_UTF8:
+            utf8Offsets[i] = classFile.position();
+            skip(classFile, Short.toUnsignedInt(classFile.getShort()));
+            break;
+          case CONSTANT_CLASS:
+            classNameIndexes[i] = Short.toUnsignedInt(classFile.getShort());
+            break;
+          case CONSTANT_STRING:
+          case CONSTANT_METHOD_TYPE:
+          case CONSTANT_MODULE:
+          case CONSTANT_PACKAGE:
+            skip(classFile, 2);
+            break;
+          case CONSTANT_METHOD_HANDLE:
+            skip(classFile, 3);
+            break;
+          case CONSTANT_INTEGER:
+          case CONSTANT_FLOAT:
+          case CONSTANT_FIELDREF:
+          case CONSTANT_METHODREF:
+          case CONSTANT_INTERFACE_METHODREF:
+          case CONSTANT_NAME_AND_TYPE:
+          case CONSTANT_DYNAMIC:
+          case CONSTANT_INVOKE_DYNAMIC:
+            skip(classFile, 4);
+            break;
+          case CONSTANT_LONG:
+          case CONSTANT_DOUBLE:
+            skip(classFile, 8);
+            i++;
+            break;
+          default:
+            return null;
+        }
+      }
+
+      int accessFlags = Short.toUnsignedInt(classFile.getShort());
+      if ((accessFlags & (ACC_INTERFACE | ACC_ANNOTATION | ACC_MODULE)) != 0) {
+        return null;
+      }
+      int thisClass = Short.toUnsignedInt(classFile.getShort());
+      int superClass = Short.toUnsignedInt(classFile.getShort());
+      return new ClassFileHeader(
+          getClassName(classFile, classNameIndexes, utf8Offsets, thisClass),
+          superClass == 0
+              ? null
+              : getClassName(classFile, classNameIndexes, utf8Offsets, superClass),
+          accessFlags);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  String getClassName() {
+    return className;
+  }
+
+  /** @return The binary name of the super class, or {@code null} for {@link Object}. */
+  String getSuperClassName() {
+    return superClassName;
+  }
+
+  boolean isAbstract() {
+    return (accessFlags & ACC_ABSTRACT) != 0;
+  }
+
+  private static void skip(ByteBuffer classFile, int length) {
+    if (classFile.remaining() < length) {
+      throw new BufferUnderflowException();
+    }
+    classFile.position(classFile.position() + length);
+  }
+
+  private static String getClassName(
+      ByteBuffer classFile, int[] classNameIndexes, int[] utf8Offsets, int classIndex) {
+    int offset = utf8Offsets[classNameIndexes[classIndex]];
+    int length = Short.toUnsignedInt(classFile.getShort(offset));
+    char[] name = new char[length];
+    for (int i = 0; i < length; i++) {
+      // Class names are modified UTF-8, non ASCII names are decoded with the slow path below
+      byte b = classFile.get(offset + 2 + i);
+      if (b < 0) {
+        return decodeModifiedUtf8(classFile, offset + 2, length);
+      }
+      name[i] = b == '/' ? '.' : (char) b;
+    }
+    return new String(name);
+  }
+
+  private static String decodeModifiedUtf8(ByteBuffer classFile, int offset, int length) {
+    StringBuilder name = new StringBuilder(length);
+    int end = offset + length;
+    int i = offset;
+    while (i < end) {
+      int b = Byte.toUnsignedInt(classFile.get(i++));
+      char c;
+      if (b < 0x80) {
+        c = (char) b;
+      } else if ((b & 0xE0) == 0xC0) {
+        c = (char) (((b & 0x1F) << 6) | (classFile.get(i++) & 0x3F));
+      } else {
+        c =
+            (char)
+                (((b & 0x0F) << 12)
+                    | ((classFile.get(i++) & 0x3F) << 6)
+                    | (classFile.get(i++) & 0x3F));
+      }
+      name.append(c == '/' ? '.' : c);
+    }
+    return name.toString();
+  }
+}
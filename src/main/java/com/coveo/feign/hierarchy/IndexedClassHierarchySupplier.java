@@ -0,0 +1,140 @@
+package com.coveo.feign.hierarchy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.coveo.feign.annotation.IndexedExceptionHierarchy;
+import com.coveo.feign.util.ComputeOnceCache;
+
+/**
+ * Reads the subclasses of a base exception from the index written at compile time by the {@link
+ * com.coveo.feign.processor.ExceptionHierarchyIndexProcessor} for the classes annotated with {@link
+ * IndexedExceptionHierarchy}. The indexes of every jar of the classpath are merged, and read once
+ * per base class and class loader.
+ *
+ * <p>It is never selected by default, since the index only holds the subclasses compiled along
+ * with the annotated base class: pass it to the constructor of your {@code ReflectionErrorDecoder}
+ * when every subclass is compiled with the annotation processor. The processor is only registered
+ * in the {@code processor} classifier of the library, which must be on the annotation processor
+ * path, and the construction fails with an {@link IllegalStateException} when no index exists for
+ * the base class.
+ */
+public class IndexedClassHierarchySupplier implements ClassHierarchySupplier {
+  public static final String INDEX_LOCATION = "META-INF/coveo-feign/exception-hierarchy/";
+
+  private static final Logger logger = LoggerFactory.getLogger(IndexedClassHierarchySupplier.class);
+
+  private static final ComputeOnceCache<List<Object>, SubClassIndex> baseClassSubClassesCache =
+      new ComputeOnceCache<>();
+
+  private SubClassIndex subClassIndex;
+
+  public IndexedClassHierarchySupplier(Class<?> baseClass) {
+    ClassLoader classLoader = getClassLoader(baseClass);
+    subClassIndex =
+        baseClassSubClassesCache.get(
+            getCacheKey(baseClass, classLoader),
+            () -> new SubClassIndex(readSubClasses(baseClass, classLoader)));
+  }
+
+  /** @return Whether an index exists for the base class in the classpath. */
+  public static boolean isIndexAvailable(Class<?> baseClass) {
+    return baseClass.isAnnotationPresent(IndexedExceptionHierarchy.class)
+        && getClassLoader(baseClass).getResource(getIndexName(baseClass)) != null;
+  }
+
+  @Override
+  public Set<Class<?>> getSubClasses(Class<?> clazz, String basePackage) {
+    Set<Class<?>> subClasses = subClassIndex.getSubClasses(clazz);
+    if (basePackage == null || basePackage.isEmpty()) {
+      return subClasses;
+    }
+    return subClasses
+        .stream()
+        .filter(subClass -> subClass.getName().startsWith(basePackage + "."))
+        .collect(Collectors.toSet());
+  }
+
+  /** Forgets the indexed subclasses of the base class read with the current class loader. */
+  public static void invalidate(Class<?> baseClass) {
+    baseClassSubClassesCache.invalidate(getCacheKey(baseClass, getClassLoader(baseClass)));
+  }
+
+  /** Forgets every indexed subclass, for tests and environments reloading classes. */
+  public static void invalidateAll() {
+    baseClassSubClassesCache.invalidateAll();
+  }
+
+  private static Set<Class<?>> readSubClasses(Class<?> baseClass, ClassLoader classLoader) {
+    Set<Class<?>> subClasses = new HashSet<>();
+    try {
+      Enumeration<URL> indexes = classLoader.getResources(getIndexName(baseClass));
+      if (!indexes.hasMoreElements()) {
+        // The base class is always listed in its own index, so the processor didn't run
+        throw new IllegalStateException(
+            String.format(
+                baseClass.isAnnotationPresent(IndexedExceptionHierarchy.class)
+                    ? "No exception hierarchy index was found for '%s', its module must be compiled"
+                        + " with the processor classifier of feign-error-decoder on the annotation"
+                        + " processor path."
+                    : "No exception hierarchy index was found for '%s', it must be annotated with"
+                        + " @IndexedExceptionHierarchy.",
+                baseClass.getName()));
+      }
+      while (indexes.hasMoreElements()) {
+        readIndex(indexes.nextElement(), classLoader, subClasses);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          String.format("Could not read the index of the subclasses of '%s'.", baseClass.getName()),
+          e);
+    }
+    logger.debug("Found '{}' indexed subClasses of '{}'.", subClasses.size(), baseClass.getName());
+    return subClasses;
+  }
+
+  private static void readIndex(URL index, ClassLoader classLoader, Set<Class<?>> subClasses)
+      throws IOException {
+    try (BufferedReader reader =
+            new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+      String className;
+      while ((className = reader.readLine()) != null) {
+        className = className.trim();
+        if (className.isEmpty() || className.startsWith("#")) {
+          continue;
+        }
+        try {
+          subClasses.add(Class.forName(className, false, classLoader));
+        } catch (ClassNotFoundException e) {
+          throw new IllegalStateException(
+              String.format("Could not load child class '%s' listed in '%s'.", className, index),
+              e);
+        }
+      }
+    }
+  }
+
+  private static String getIndexName(Class<?> baseClass) {
+    return INDEX_LOCATION + baseClass.getName();
+  }
+
+  private static ClassLoader getClassLoader(Class<?> baseClass) {
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    return contextClassLoader != null ? contextClassLoader : baseClass.getClassLoader();
+  }
+
+  private static List<Object> getCacheKey(Class<?> baseClass, ClassLoader classLoader) {
+    return List.of(baseClass, classLoader);
+  }
+}
@@ -0,0 +1,37 @@
+package com.coveo.feign.hierarchy;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Creates its delegate on the first call to {@link #getSubClasses(Class, String)}, so the
+ * suppliers scanning the classpath in their constructor don't scan it before the decoder is
+ * initialized.
+ */
+public class LazyClassHierarchySupplier implements ClassHierarchySupplier {
+  private final Supplier<ClassHierarchySupplier> delegateFactory;
+  private volatile ClassHierarchySupplier delegate;
+
+  public LazyClassHierarchySupplier(Supplier<ClassHierarchySupplier> delegateFactory) {
+    this.delegateFactory = delegateFactory;
+  }
+
+  @Override
+  public Set<Class<?>> getSubClasses(Class<?> clazz, String basePackage) {
+    return getDelegate().getSubClasses(clazz, basePackage);
+  }
+
+  private ClassHierarchySupplier getDelegate() {
+    ClassHierarchySupplier currentDelegate = delegate;
+    if (currentDelegate == null) {
+      synchronized (this) {
+        currentDelegate = delegate;
+        if (currentDelegate == null) {
+          currentDelegate = delegateFactory.get();
+          delegate = currentDelegate;
+        }
+      }
+    }
+    return currentDelegate;
+  }
+}
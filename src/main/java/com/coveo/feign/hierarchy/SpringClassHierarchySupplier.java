@@ -7,27 +7,35 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 
+import com.coveo.feign.metrics.FlightRecorderEvents;
+
 public class SpringClassHierarchySupplier implements ClassHierarchySupplier {
   @Override
   public Set<Class<?>> getSubClasses(Class<?> clazz, String basePackage) {
+    Object event = FlightRecorderEvents.beginClassHierarchyScan();
     ClassPathScanningCandidateComponentProvider provider =
         new ClassPathScanningCandidateComponentProvider(false);
     provider.addIncludeFilter(new AssignableTypeFilter(clazz));
 
     Set<BeanDefinition> components = provider.findCandidateComponents(basePackage);
 
-    return components
-        .stream()
-        .map(
-            component -> {
-              try {
-                return Class.forName(component.getBeanClassName());
-              } catch (ClassNotFoundException e) {
-                throw new IllegalStateException(
-                    String.format("Could not load child class '%s'.", component.getBeanClassName()),
-                    e);
-              }
-            })
-        .collect(Collectors.toSet());
+    Set<Class<?>> subClasses =
+        components
+            .stream()
+            .map(
+                component -> {
+                  try {
+                    return Class.forName(component.getBeanClassName());
+                  } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(
+                        String.format(
+                            "Could not load child class '%s'.", component.getBeanClassName()),
+                        e);
+                  }
+                })
+            .collect(Collectors.toSet());
+    FlightRecorderEvents.endClassHierarchyScan(
+        event, SpringClassHierarchySupplier.class, clazz, basePackage, subClasses.size());
+    return subClasses;
   }
 }
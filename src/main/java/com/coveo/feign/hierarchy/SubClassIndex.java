@@ -0,0 +1,52 @@
+package com.coveo.feign.hierarchy;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps every super class and interface of the scanned classes to the scanned classes assignable to
+ * it, so that looking up the subclasses of a class costs the size of the result instead of a pass
+ * over every scanned class.
+ */
+class SubClassIndex {
+  private final Map<Class<?>, Set<Class<?>>> subClassesByParent;
+
+  SubClassIndex(Set<Class<?>> scannedClasses) {
+    Map<Class<?>, Set<Class<?>>> index = new HashMap<>();
+    for (Class<?> scannedClass : scannedClasses) {
+      for (Class<?> parent : getParents(scannedClass)) {
+        index.computeIfAbsent(parent, key -> new HashSet<>()).add(scannedClass);
+      }
+    }
+    index.replaceAll((parent, subClasses) -> Collections.unmodifiableSet(subClasses));
+    subClassesByParent = index;
+  }
+
+  /** @return The scanned classes assignable to the class, including itself if it was scanned. */
+  Set<Class<?>> getSubClasses(Class<?> clazz) {
+    return subClassesByParent.getOrDefault(clazz, Collections.emptySet());
+  }
+
+  private static Set<Class<?>> getParents(Class<?> clazz) {
+    Set<Class<?>> parents = new HashSet<>();
+    Deque<Class<?>> toVisit = new ArrayDeque<>();
+    toVisit.push(clazz);
+    while (!toVisit.isEmpty()) {
+      Class<?> current = toVisit.pop();
+      if (parents.add(current)) {
+        if (current.getSuperclass() != null) {
+          toVisit.push(current.getSuperclass());
+        }
+        for (Class<?> implementedInterface : current.getInterfaces()) {
+          toVisit.push(implementedInterface);
+        }
+      }
+    }
+    return parents;
+  }
+}
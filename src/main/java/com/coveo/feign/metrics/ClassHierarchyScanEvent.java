@@ -0,0 +1,41 @@
+package com.coveo.feign.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of a classpath scan done by a {@code ClassHierarchySupplier} to find
+ * the subclasses of a base exception class. The cached suppliers only emit it on a cache miss.
+ */
+@Name("com.coveo.feign.ClassHierarchyScan")
+@Label("Feign Exception Hierarchy Scan")
+@Category({"Feign", "Error Decoder"})
+@Description("A classpath scan for the subclasses of a base exception class")
+public final class ClassHierarchyScanEvent extends Event {
+  @Label("Supplier")
+  private Class<?> supplier;
+
+  @Label("Base Class")
+  private Class<?> baseClass;
+
+  @Label("Base Package")
+  private String basePackage;
+
+  @Label("Classes Found")
+  private int classCount;
+
+  /** Ends the event and commits it if it is recorded. */
+  public void end(Class<?> supplier, Class<?> baseClass, String basePackage, int classCount) {
+    end();
+    if (shouldCommit()) {
+      this.supplier = supplier;
+      this.baseClass = baseClass;
+      this.basePackage = basePackage;
+      this.classCount = classCount;
+      commit();
+    }
+  }
+}
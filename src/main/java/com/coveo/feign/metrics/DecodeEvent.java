@@ -0,0 +1,65 @@
+package com.coveo.feign.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of an error response decoded by a {@code ReflectionErrorDecoder}. Its
+ * duration covers the body buffering, the key extraction, the exception instantiation and the
+ * fallback {@code ErrorDecoder}. When the event isn't enabled in a recording, {@link #begin()} and
+ * {@link #end(Class, String, int, String, DecodeOutcome, int)} do nothing.
+ */
+@Name("com.coveo.feign.Decode")
+@Label("Feign Error Decode")
+@Category({"Feign", "Error Decoder"})
+@Description("An error response decoded by a ReflectionErrorDecoder")
+@StackTrace(false)
+public final class DecodeEvent extends Event {
+  @Label("API Class")
+  private Class<?> apiClass;
+
+  @Label("Method Key")
+  private String methodKey;
+
+  @Label("Status")
+  private int status;
+
+  @Label("Error Code")
+  private String errorCode;
+
+  @Label("Outcome")
+  private String outcome;
+
+  @Label("Body Size")
+  @DataAmount
+  private int bodySize;
+
+  /**
+   * Ends the event and commits it if it is recorded.
+   *
+   * @param bodySize The size of the buffered body, or -1 if the response has no body.
+   */
+  public void end(
+      Class<?> apiClass,
+      String methodKey,
+      int status,
+      String errorCode,
+      DecodeOutcome outcome,
+      int bodySize) {
+    end();
+    if (shouldCommit()) {
+      this.apiClass = apiClass;
+      this.methodKey = methodKey;
+      this.status = status;
+      this.errorCode = errorCode;
+      this.outcome = outcome.name();
+      this.bodySize = bodySize;
+      commit();
+    }
+  }
+}
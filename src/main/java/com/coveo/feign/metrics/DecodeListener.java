@@ -0,0 +1,28 @@
+package com.coveo.feign.metrics;
+
+/**
+ * Notified of every error response decoded by a {@code ReflectionErrorDecoder}, to record metrics
+ * about the decoding. No listener is set by default, in which case the decoding isn't even timed.
+ * It is called on the thread decoding the response, so it must be thread-safe and fast.
+ */
+@FunctionalInterface
+public interface DecodeListener {
+  /**
+   * @param apiClass The API class of the decoder.
+   * @param methodKey The Feign method key of the call.
+   * @param status The status of the response.
+   * @param errorKey The key extracted from the response, or null if none was extracted. It may be
+   *     any value sent by the server unless the outcome is {@link DecodeOutcome#EXCEPTION}.
+   * @param outcome How the response was decoded.
+   * @param bodySize The size of the buffered body in bytes, or -1 if the response has no body.
+   * @param durationNanos The time spent decoding the response, including the fallback decoder.
+   */
+  void onDecode(
+      Class<?> apiClass,
+      String methodKey,
+      int status,
+      String errorKey,
+      DecodeOutcome outcome,
+      int bodySize,
+      long durationNanos);
+}
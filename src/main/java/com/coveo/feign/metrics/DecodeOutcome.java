@@ -0,0 +1,39 @@
+package com.coveo.feign.metrics;
+
+/** How an error response was decoded by a {@code ReflectionErrorDecoder}. */
+public enum DecodeOutcome {
+  /** The key of the response was mapped to a declared or runtime exception. */
+  EXCEPTION(false),
+  /** The key of the response isn't mapped to any exception. */
+  UNKNOWN_KEY(true),
+  /** No key could be extracted from the body of the response. */
+  NO_KEY(true),
+  /** The response has no body. */
+  NO_BODY(true),
+  /** The response was rejected by the {@code ErrorResponseFilter}. */
+  FILTERED(true),
+  /** The body of the response is larger than the maximum body size. */
+  OVERSIZED_BODY(true),
+  /** The body of the response couldn't be read. */
+  IO_ERROR(true),
+  /** The body of the response was read, but the error key extractor couldn't parse it. */
+  PARSE_ERROR(true),
+  /** The exception mapped to the key of the response couldn't be instantiated. */
+  INSTANTIATION_ERROR(true),
+  /**
+   * The body of the response wasn't read since its method key is short-circuited by an error storm,
+   * the response was given to the fallback {@code ErrorDecoder} without it.
+   */
+  SHORT_CIRCUITED(true);
+
+  private final boolean fallback;
+
+  DecodeOutcome(boolean fallback) {
+    this.fallback = fallback;
+  }
+
+  /** @return Whether the response was given to the fallback {@code ErrorDecoder}. */
+  public boolean isFallback() {
+    return fallback;
+  }
+}
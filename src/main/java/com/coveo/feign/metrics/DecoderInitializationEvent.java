@@ -0,0 +1,34 @@
+package com.coveo.feign.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event of the initialization of a {@code ReflectionErrorDecoder}, i.e. the
+ * scanning of the methods of its API class and the resolution of the exceptions they declare.
+ */
+@Name("com.coveo.feign.DecoderInitialization")
+@Label("Feign Error Decoder Initialization")
+@Category({"Feign", "Error Decoder"})
+@Description("The initialization of a ReflectionErrorDecoder")
+public final class DecoderInitializationEvent extends Event {
+  @Label("API Class")
+  private Class<?> apiClass;
+
+  @Label("Error Codes")
+  @Description("The number of error codes mapped to an exception")
+  private int errorCodeCount;
+
+  /** Ends the event and commits it if it is recorded. */
+  public void end(Class<?> apiClass, int errorCodeCount) {
+    end();
+    if (shouldCommit()) {
+      this.apiClass = apiClass;
+      this.errorCodeCount = errorCodeCount;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.coveo.feign.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits the {@link DecodeEvent}, {@link DecoderInitializationEvent} and {@link
+ * ClassHierarchyScanEvent} only when the {@code jdk.jfr} module is available, so the decoders still
+ * run on a runtime image built without it. The JFR classes are only loaded by a nested holder, and
+ * an event is only allocated while it is enabled in a recording, otherwise its begin method returns
+ * null and its end method does nothing.
+ */
+public final class FlightRecorderEvents {
+  private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+  private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+  private FlightRecorderEvents() {}
+
+  /** @return Whether the {@code jdk.jfr} module is available to record the events. */
+  public static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /** @return The begun event of a decoded response, or null if it isn't recorded. */
+  public static Object beginDecode() {
+    return AVAILABLE ? Events.beginDecode() : null;
+  }
+
+  /** @see DecodeEvent#end(Class, String, int, String, DecodeOutcome, int) */
+  public static void endDecode(
+      Object event,
+      Class<?> apiClass,
+      String methodKey,
+      int status,
+      String errorCode,
+      DecodeOutcome outcome,
+      int bodySize) {
+    if (event != null) {
+      Events.endDecode(event, apiClass, methodKey, status, errorCode, outcome, bodySize);
+    }
+  }
+
+  /** @return The begun event of a decoder initialization, or null if it isn't recorded. */
+  public static Object beginDecoderInitialization() {
+    return AVAILABLE ? Events.beginDecoderInitialization() : null;
+  }
+
+  /** @see DecoderInitializationEvent#end(Class, int) */
+  public static void endDecoderInitialization(Object event, Class<?> apiClass, int errorCodeCount) {
+    if (event != null) {
+      Events.endDecoderInitialization(event, apiClass, errorCodeCount);
+    }
+  }
+
+  /** @return The begun event of a classpath scan, or null if it isn't recorded. */
+  public static Object beginClassHierarchyScan() {
+    return AVAILABLE ? Events.beginClassHierarchyScan() : null;
+  }
+
+  /** @see ClassHierarchyScanEvent#end(Class, Class, String, int) */
+  public static void endClassHierarchyScan(
+      Object event, Class<?> supplier, Class<?> baseClass, String basePackage, int classCount) {
+    if (event != null) {
+      Events.endClassHierarchyScan(event, supplier, baseClass, basePackage, classCount);
+    }
+  }
+
+  private static boolean isFlightRecorderAvailable() {
+    if (ModuleLayer.boot().findModule("jdk.jfr").isEmpty()) {
+      logger.debug("The jdk.jfr module isn't available, no Flight Recorder event will be emitted.");
+      return false;
+    }
+    try {
+      Events.load();
+      return true;
+    } catch (LinkageError e) {
+      logger.debug("Could not load the Flight Recorder events, none will be emitted.", e);
+      return false;
+    }
+  }
+
+  /** Holds every reference to the JFR classes, and is only loaded when they are available. */
+  private static final class Events {
+    // Unrecorded instances, only used to check whether the events are enabled
+    private static final DecodeEvent DECODE = new DecodeEvent();
+    private static final DecoderInitializationEvent DECODER_INITIALIZATION =
+        new DecoderInitializationEvent();
+    private static final ClassHierarchyScanEvent CLASS_HIERARCHY_SCAN =
+        new ClassHierarchyScanEvent();
+
+    static void load() {}
+
+    static Object beginDecode() {
+      if (!DECODE.isEnabled()) {
+        return null;
+      }
+      DecodeEvent event = new DecodeEvent();
+      event.begin();
+      return event;
+    }
+
+    static void endDecode(
+        Object event,
+        Class<?> apiClass,
+        String methodKey,
+        int status,
+        String errorCode,
+        DecodeOutcome outcome,
+        int bodySize) {
+      ((DecodeEvent) event).end(apiClass, methodKey, status, errorCode, outcome, bodySize);
+    }
+
+    static Object beginDecoderInitialization() {
+      if (!DECODER_INITIALIZATION.isEnabled()) {
+        return null;
+      }
+      DecoderInitializationEvent event = new DecoderInitializationEvent();
+      event.begin();
+      return event;
+    }
+
+    static void endDecoderInitialization(Object event, Class<?> apiClass, int errorCodeCount) {
+      ((DecoderInitializationEvent) event).end(apiClass, errorCodeCount);
+    }
+
+    static Object beginClassHierarchyScan() {
+      if (!CLASS_HIERARCHY_SCAN.isEnabled()) {
+        return null;
+      }
+      ClassHierarchyScanEvent event = new ClassHierarchyScanEvent();
+      event.begin();
+      return event;
+    }
+
+    static void endClassHierarchyScan(
+        Object event, Class<?> supplier, Class<?> baseClass, String basePackage, int classCount) {
+      ((ClassHierarchyScanEvent) event).end(supplier, baseClass, basePackage, classCount);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.coveo.feign.metrics;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the decoded error responses in a Micrometer {@link MeterRegistry}:
+ *
+ * <ul>
+ *   <li>{@value #DECODES}, a counter tagged with the API class, the outcome and the error code,
+ *   <li>{@value #DURATION}, a timer of the decoding tagged with the API class and the outcome,
+ *   <li>{@value #BODY_SIZE}, a distribution of the body sizes tagged with the API class.
+ * </ul>
+ *
+ * The error code tag is only set for the keys mapped to an exception, since the other keys are sent
+ * by the server and could be anything, and is {@value #NO_ERROR_CODE} otherwise.
+ */
+public class MicrometerDecodeListener implements DecodeListener {
+  public static final String DECODES = "feign.error.decoder.decodes";
+  public static final String DURATION = "feign.error.decoder.duration";
+  public static final String BODY_SIZE = "feign.error.decoder.body.size";
+  public static final String API_TAG = "api";
+  public static final String OUTCOME_TAG = "outcome";
+  public static final String ERROR_CODE_TAG = "error.code";
+  public static final String NO_ERROR_CODE = "none";
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<List<Object>, Counter> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<List<Object>, Timer> timers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, DistributionSummary> bodySizes = new ConcurrentHashMap<>();
+
+  public MicrometerDecodeListener(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void onDecode(
+      Class<?> apiClass,
+      String methodKey,
+      int status,
+      String errorKey,
+      DecodeOutcome outcome,
+      int bodySize,
+      long durationNanos) {
+    String errorCode = outcome == DecodeOutcome.EXCEPTION ? errorKey : NO_ERROR_CODE;
+    getOrRegister(
+            counters,
+            List.of(apiClass, outcome, errorCode),
+            ()
+                -> Counter.builder(DECODES)
+                    .description("The error responses decoded by the ReflectionErrorDecoder")
+                    .tag(API_TAG, apiClass.getName())
+                    .tag(OUTCOME_TAG, outcome.name())
+                    .tag(ERROR_CODE_TAG, errorCode)
+                    .register(meterRegistry))
+        .increment();
+    getOrRegister(
+            timers,
+            List.of(apiClass, outcome),
+            ()
+                -> Timer.builder(DURATION)
+                    .description("The time spent decoding an error response")
+                    .tag(API_TAG, apiClass.getName())
+                    .tag(OUTCOME_TAG, outcome.name())
+                    .register(meterRegistry))
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+    if (bodySize >= 0) {
+      getOrRegister(
+              bodySizes,
+              apiClass,
+              ()
+                  -> DistributionSummary.builder(BODY_SIZE)
+                      .description("The size of the decoded error response bodies")
+                      .baseUnit("bytes")
+                      .tag(API_TAG, apiClass.getName())
+                      .register(meterRegistry))
+          .record(bodySize);
+    }
+  }
+
+  // Registering a meter twice returns the same meter, so it is registered outside of the map to
+  // never hold a lock of the map while the registry takes its own lock
+  private static <K, M> M getOrRegister(ConcurrentMap<K, M> meters, K key, Supplier<M> register) {
+    M meter = meters.get(key);
+    if (meter == null) {
+      meter = register.get();
+      meters.putIfAbsent(key, meter);
+    }
+    return meter;
+  }
+}
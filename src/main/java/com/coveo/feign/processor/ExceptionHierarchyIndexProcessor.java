@@ -0,0 +1,157 @@
+package com.coveo.feign.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.coveo.feign.annotation.IndexedExceptionHierarchy;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplier;
+
+/**
+ * Writes an index of the compiled subclasses of each base exception annotated with {@link
+ * IndexedExceptionHierarchy}, read at runtime by the {@link IndexedClassHierarchySupplier}. Each
+ * line of the index holds the binary name of a subclass. The subclasses declaring the same error
+ * code constant are reported as warnings.
+ *
+ * The index only holds the classes of the current compilation, so a module should be fully rebuilt
+ * when its exceptions change.
+ */
+@SupportedAnnotationTypes("*")
+public class ExceptionHierarchyIndexProcessor extends AbstractProcessor {
+  private final Map<String, Set<String>> subClassesPerBaseClass = new TreeMap<>();
+  private final Map<String, Map<String, String>> subClassPerErrorCode = new HashMap<>();
+  private final Map<String, List<Element>> originatingElements = new HashMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver()) {
+      subClassesPerBaseClass.forEach(this::writeIndex);
+    } else {
+      roundEnv.getRootElements().forEach(this::indexType);
+    }
+    return false;
+  }
+
+  private void indexType(Element element) {
+    if (element.getKind() != ElementKind.CLASS) {
+      return;
+    }
+    TypeElement type = (TypeElement) element;
+    for (TypeElement current = type; current != null; current = getSuperclass(current)) {
+      IndexedExceptionHierarchy indexedExceptionHierarchy =
+          current.getAnnotation(IndexedExceptionHierarchy.class);
+      if (indexedExceptionHierarchy != null) {
+        addToIndex(current, type, indexedExceptionHierarchy.errorCodeField());
+      }
+    }
+    type.getEnclosedElements().forEach(this::indexType);
+  }
+
+  private void addToIndex(TypeElement baseClass, TypeElement subClass, String errorCodeField) {
+    String baseClassName = getBinaryName(baseClass);
+    String subClassName = getBinaryName(subClass);
+    String errorCode = getErrorCode(subClass, errorCodeField);
+    subClassesPerBaseClass.computeIfAbsent(baseClassName, key -> new TreeSet<>()).add(subClassName);
+
+    if (errorCode != null) {
+      String duplicate =
+          subClassPerErrorCode
+              .computeIfAbsent(baseClassName, key -> new HashMap<>())
+              .putIfAbsent(errorCode, subClassName);
+      if (duplicate != null && !duplicate.equals(subClassName)) {
+        processingEnv
+            .getMessager()
+            .printMessage(
+                Kind.WARNING,
+                String.format(
+                    "Duplicate error code '%s' for exception '%s' and '%s'.",
+                    errorCode,
+                    subClassName,
+                    duplicate),
+                subClass);
+      }
+    }
+    originatingElements.computeIfAbsent(baseClassName, key -> new ArrayList<>()).add(subClass);
+  }
+
+  private void writeIndex(String baseClassName, Set<String> subClasses) {
+    try {
+      FileObject index =
+          processingEnv
+              .getFiler()
+              .createResource(
+                  StandardLocation.CLASS_OUTPUT,
+                  "",
+                  IndexedClassHierarchySupplier.INDEX_LOCATION + baseClassName,
+                  originatingElements.get(baseClassName).toArray(new Element[0]));
+      try (Writer writer =
+              new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (String subClass : subClasses) {
+          writer.write(subClass);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Kind.ERROR,
+              String.format(
+                  "Could not write the exception hierarchy index of '%s': %s",
+                  baseClassName,
+                  e.getMessage()));
+    }
+  }
+
+  private String getErrorCode(TypeElement subClass, String errorCodeField) {
+    return subClass
+        .getEnclosedElements()
+        .stream()
+        .filter(element -> element.getKind() == ElementKind.FIELD)
+        .filter(element -> element.getSimpleName().contentEquals(errorCodeField))
+        .map(element -> ((VariableElement) element).getConstantValue())
+        .filter(String.class::isInstance)
+        .map(String.class::cast)
+        .findFirst()
+        .orElse(null);
+  }
+
+  private String getBinaryName(TypeElement type) {
+    return processingEnv.getElementUtils().getBinaryName(type).toString();
+  }
+
+  private static TypeElement getSuperclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    return superclass.getKind() == TypeKind.DECLARED
+        ? (TypeElement) ((DeclaredType) superclass).asElement()
+        : null;
+  }
+}
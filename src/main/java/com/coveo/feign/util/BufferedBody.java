@@ -0,0 +1,78 @@
+package com.coveo.feign.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import feign.Response;
+
+/** The bytes of a response body read up to a maximum size. */
+public class BufferedBody {
+  private static final ByteArrayPool BUFFER_POOL =
+      new ByteArrayPool(Runtime.getRuntime().availableProcessors(), 8 * 1024);
+
+  private final byte[] data;
+  private final boolean truncated;
+
+  private BufferedBody(byte[] data, boolean truncated) {
+    this.data = data;
+    this.truncated = truncated;
+  }
+
+  /**
+   * Reads at most {@code maxSize} bytes of the body and closes it. The body is read in a pooled
+   * buffer, so a body fitting in it only costs the allocation of the returned array.
+   *
+   * @param body The body to read.
+   * @param maxSize The maximum number of bytes kept.
+   * @return The bytes read, flagged as truncated when the body was longer than {@code maxSize}.
+   * @throws IOException If the body can't be read.
+   */
+  public static BufferedBody read(Response.Body body, int maxSize) throws IOException {
+    try (InputStream inputStream = body.asInputStream()) {
+      byte[] buffer = BUFFER_POOL.acquire();
+      try {
+        ByteArrayOutputStream overflow = null;
+        int count = 0;
+        int total = 0;
+        int read = 0;
+        while (total < maxSize
+            && (read =
+                    inputStream.read(
+                        buffer, count, Math.min(buffer.length - count, maxSize - total)))
+                != -1) {
+          count += read;
+          total += read;
+          if (count == buffer.length) {
+            if (overflow == null) {
+              Integer length = body.length();
+              overflow =
+                  new ByteArrayOutputStream(
+                      length == null ? 2 * buffer.length : Math.min(length, maxSize));
+            }
+            overflow.write(buffer, 0, count);
+            count = 0;
+          }
+        }
+        boolean truncated = read != -1 && inputStream.read() != -1;
+
+        if (overflow == null) {
+          return new BufferedBody(Arrays.copyOf(buffer, count), truncated);
+        }
+        overflow.write(buffer, 0, count);
+        return new BufferedBody(overflow.toByteArray(), truncated);
+      } finally {
+        BUFFER_POOL.release(buffer);
+      }
+    }
+  }
+
+  public byte[] getData() {
+    return data;
+  }
+
+  public boolean isTruncated() {
+    return truncated;
+  }
+}
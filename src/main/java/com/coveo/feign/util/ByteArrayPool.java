@@ -0,0 +1,42 @@
+package com.coveo.feign.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small lock-free pool of fixed size byte arrays. When the pool is empty a new array is
+ * allocated, and an array released to a full pool is simply left to the garbage collector.
+ */
+public class ByteArrayPool {
+  private final AtomicReferenceArray<byte[]> slots;
+  private final int arraySize;
+
+  public ByteArrayPool(int poolSize, int arraySize) {
+    this.slots = new AtomicReferenceArray<>(poolSize);
+    this.arraySize = arraySize;
+  }
+
+  public byte[] acquire() {
+    for (int i = 0; i < slots.length(); i++) {
+      byte[] array = slots.get(i);
+      if (array != null && slots.compareAndSet(i, array, null)) {
+        return array;
+      }
+    }
+    return new byte[arraySize];
+  }
+
+  public void release(byte[] array) {
+    if (array.length != arraySize) {
+      return;
+    }
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) == null && slots.compareAndSet(i, null, array)) {
+        return;
+      }
+    }
+  }
+
+  public int getArraySize() {
+    return arraySize;
+  }
+}
@@ -0,0 +1,54 @@
+package com.coveo.feign.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A thread-safe cache computing each value only once. Threads asking for a value being computed
+ * wait for it instead of computing it again, without holding any monitor. A failed computation is
+ * not cached.
+ */
+public class ComputeOnceCache<K, V> {
+  private final ConcurrentMap<K, FutureTask<V>> cache = new ConcurrentHashMap<>();
+
+  public V get(K key, Callable<V> loader) {
+    FutureTask<V> computation = cache.get(key);
+    if (computation == null) {
+      FutureTask<V> newComputation = new FutureTask<>(loader);
+      computation = cache.putIfAbsent(key, newComputation);
+      if (computation == null) {
+        computation = newComputation;
+        computation.run();
+      }
+    }
+
+    try {
+      return computation.get();
+    } catch (ExecutionException e) {
+      cache.remove(key, computation);
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(
+          String.format("Could not compute the value of '%s'.", key), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          String.format("Interrupted while waiting for the value of '%s'.", key), e);
+    }
+  }
+
+  public void invalidate(K key) {
+    cache.remove(key);
+  }
+
+  public void invalidateAll() {
+    cache.clear();
+  }
+}
@@ -23,6 +23,16 @@ public abstract class BaseServiceException extends Exception {
     this.errorCode = errorCode;
   }
 
+  protected BaseServiceException(
+      String errorCode,
+      String message,
+      Throwable innerException,
+      boolean enableSuppression,
+      boolean writableStackTrace) {
+    super(message, innerException, enableSuppression, writableStackTrace);
+    this.errorCode = errorCode;
+  }
+
   public String getErrorCode() {
     return errorCode;
   }
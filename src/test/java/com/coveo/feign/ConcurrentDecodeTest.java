@@ -0,0 +1,139 @@
+package com.coveo.feign;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithStringConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.metrics.DecodeOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+/**
+ * Shares a lazily initialized decoder between threads released together, so they race on the
+ * initialization and then on the decoding, and checks that every thread gets the exception and the
+ * message of its own response.
+ */
+public class ConcurrentDecodeTest {
+  private static final int DECODES_PER_THREAD = 2_000;
+
+  @Test
+  public void testDecodeWithOneThread() throws Exception {
+    decodeConcurrently(1);
+  }
+
+  @Test
+  public void testDecodeWithEightThreads() throws Exception {
+    decodeConcurrently(8);
+  }
+
+  @Test
+  public void testDecodeWithSixtyFourThreads() throws Exception {
+    decodeConcurrently(64);
+  }
+
+  private static void decodeConcurrently(int threadCount) throws Exception {
+    Map<DecodeOutcome, LongAdder> outcomes = new ConcurrentHashMap<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos)
+                    -> outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment());
+          }
+
+          @Override
+          protected InitializationMode getInitializationMode() {
+            return InitializationMode.LAZY;
+          }
+        };
+
+    CyclicBarrier start = new CyclicBarrier(threadCount);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<?>> threads = new ArrayList<>();
+      for (int thread = 0; thread < threadCount; thread++) {
+        int threadId = thread;
+        threads.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int i = 0; i < DECODES_PER_THREAD; i++) {
+                    decodeAndCheck(errorDecoder, threadId + "-" + i, i % 3);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> thread : threads) {
+        thread.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long decodeCount = (long) threadCount * DECODES_PER_THREAD;
+    long unknownKeyCount = (long) threadCount * (DECODES_PER_THREAD / 3);
+    assertThat(outcomes.get(DecodeOutcome.UNKNOWN_KEY).sum()).isEqualTo(unknownKeyCount);
+    assertThat(outcomes.get(DecodeOutcome.EXCEPTION).sum())
+        .isEqualTo(decodeCount - unknownKeyCount);
+  }
+
+  private static void decodeAndCheck(
+      ServiceExceptionErrorDecoder errorDecoder, String message, int responseType)
+      throws Exception {
+    switch (responseType) {
+      case 0:
+        Exception exception =
+            errorDecoder.decode(
+                "", getResponse(ExceptionWithEmptyConstructorException.ERROR_CODE, message));
+        assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+        assertThat(exception.getMessage()).isEqualTo(message);
+        break;
+      case 1:
+        exception =
+            errorDecoder.decode(
+                "", getResponse(ExceptionWithStringConstructorException.ERROR_CODE, message));
+        assertThat(exception).isInstanceOf(ExceptionWithStringConstructorException.class);
+        assertThat(exception.getMessage()).isEqualTo(message);
+        break;
+      default:
+        exception = errorDecoder.decode("", getResponse(UUID.randomUUID().toString(), message));
+        assertThat(exception).isInstanceOf(FeignException.class);
+    }
+  }
+
+  private static Response getResponse(String errorCode, String message) throws Exception {
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(
+            new ObjectMapper()
+                .writeValueAsString(
+                    new ErrorCodeAndMessage().withErrorCode(errorCode).withMessage(message)),
+            StandardCharsets.UTF_8)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+}
@@ -0,0 +1,54 @@
+package com.coveo.feign;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ErrorCodeTableTest {
+  @Test
+  public void testEveryCodeIsFound() {
+    Map<String, Integer> entries = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put("ERROR_CODE_" + i, i);
+    }
+    ErrorCodeTable<Integer> table = new ErrorCodeTable<>(entries);
+
+    assertThat(table.size()).isEqualTo(entries.size());
+    for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+      assertThat(table.get(entry.getKey())).isEqualTo(entry.getValue());
+    }
+    assertThat(table.get("ERROR_CODE_1000")).isNull();
+    assertThat(table.get(null)).isNull();
+  }
+
+  @Test
+  public void testCollidingCodesAreFound() {
+    // "Aa" and "BB" have the same String hash code
+    ErrorCodeTable<String> table = new ErrorCodeTable<>(Map.of("Aa", "first", "BB", "second"));
+
+    assertThat(table.get("Aa")).isEqualTo("first");
+    assertThat(table.get("BB")).isEqualTo("second");
+    assertThat(table.findKey("BB".toCharArray(), 0, 2)).isEqualTo("BB");
+  }
+
+  @Test
+  public void testFindKeyFromCharacters() {
+    String key = "NOT_FOUND";
+    ErrorCodeTable<String> table = new ErrorCodeTable<>(Map.of(key, "value"));
+    char[] buffer = "{\"errorCode\":\"NOT_FOUND\"}".toCharArray();
+
+    assertThat(table.findKey(buffer, 14, key.length())).isSameInstanceAs(key);
+    assertThat(table.findKey(buffer, 14, key.length() - 1)).isNull();
+  }
+
+  @Test
+  public void testEmptyTable() {
+    ErrorCodeTable<String> table = new ErrorCodeTable<>(Map.of());
+
+    assertThat(table.get("ANY")).isNull();
+    assertThat(table.findKey(new char[0], 0, 0)).isNull();
+  }
+}
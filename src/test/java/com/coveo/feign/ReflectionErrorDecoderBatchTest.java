@@ -0,0 +1,81 @@
+package com.coveo.feign;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithDuplicateErrorCodeException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithInheritedExceptions;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithSpringAnnotations;
+
+@SuppressWarnings("unchecked")
+public class ReflectionErrorDecoderBatchTest {
+  private static final List<Class<?>> API_CLASSES =
+      List.of(
+          TestApiClassWithPlainExceptions.class,
+          TestApiClassWithInheritedExceptions.class,
+          TestApiClassWithSpringAnnotations.class);
+  private static final Field EXCEPTION_THROWN_FIELD;
+
+  static {
+    try {
+      EXCEPTION_THROWN_FIELD = ReflectionErrorDecoder.class.getDeclaredField("exceptionsThrown");
+      EXCEPTION_THROWN_FIELD.setAccessible(true);
+    } catch (NoSuchFieldException | SecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  public void testDecodersAreTheSameAsWhenCreatedOneByOne() throws Exception {
+    Map<Class<?>, ServiceExceptionErrorDecoder> decoders =
+        new ReflectionErrorDecoderBatch<>(ServiceExceptionErrorDecoder::new)
+            .withApiClasses(API_CLASSES)
+            .build();
+
+    assertThat(decoders.keySet()).containsExactlyElementsIn(API_CLASSES).inOrder();
+    for (Class<?> apiClass : API_CLASSES) {
+      assertThat(getExceptionsThrown(decoders.get(apiClass)).keySet())
+          .isEqualTo(getExceptionsThrown(new ServiceExceptionErrorDecoder(apiClass)).keySet());
+    }
+  }
+
+  @Test
+  public void testLazyDecodersAreInitialized() throws Exception {
+    Map<Class<?>, ServiceExceptionErrorDecoder> decoders =
+        new ReflectionErrorDecoderBatch<ServiceExceptionErrorDecoder>(
+                apiClass
+                    -> new ServiceExceptionErrorDecoder(apiClass) {
+                      @Override
+                      protected InitializationMode getInitializationMode() {
+                        return InitializationMode.LAZY;
+                      }
+                    })
+            .withApiClass(TestApiClassWithPlainExceptions.class)
+            .build();
+
+    assertThat(getExceptionsThrown(decoders.get(TestApiClassWithPlainExceptions.class)))
+        .isNotEmpty();
+  }
+
+  @Test
+  public void testDuplicateErrorCodesAreRejected() {
+    ReflectionErrorDecoderBatch<ServiceExceptionErrorDecoder> batch =
+        new ReflectionErrorDecoderBatch<>(ServiceExceptionErrorDecoder::new)
+            .withApiClasses(API_CLASSES)
+            .withApiClass(TestApiClassWithDuplicateErrorCodeException.class);
+
+    assertThrows(IllegalStateException.class, batch::build);
+  }
+
+  private static Map<String, ?> getExceptionsThrown(ReflectionErrorDecoder<?, ?> errorDecoder)
+      throws IllegalAccessException {
+    return (Map<String, ?>) EXCEPTION_THROWN_FIELD.get(errorDecoder);
+  }
+}
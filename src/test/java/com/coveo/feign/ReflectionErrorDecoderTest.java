@@ -3,13 +3,25 @@ package com.coveo.feign;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledForJreRange;
@@ -30,6 +42,7 @@ import com.coveo.feign.ReflectionErrorDecoderTestClasses.ConcreteSubServiceExcep
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionHardcodingDetailMessage;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithExceptionConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithStackTraceFreeConstructorException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithStringAndThrowableConstructorException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithStringConstructorException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithThrowableConstructorException;
@@ -37,31 +50,52 @@ import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithTwoStrings
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.GrandChildOfBaseNotAbstractException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.MultipleConstructorsException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.MultipleConstructorsWithOnlyThrowableArgumentsException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.PrototypeException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.SingletonException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithDuplicateErrorCodeException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithInheritedButNotAbstractExceptions;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithInheritedExceptions;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithNoErrorCodeServiceException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithRepeatedInheritedExceptions;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithSpringAnnotations;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithExceptionHardcodingDetailMessage;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithExceptionsNotExtendingServiceException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithExceptionsWithInvalidConstructor;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithExceptionsWithMultipleConstructors;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithExceptionsWithMultipleConstructorsWithOnlyThrowables;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithInstantiationStrategies;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithInvalidPrototypeException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithInvalidSingletonException;
 import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithMethodsNotAnnotated;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiWithStackTraceFreeConstructorException;
+import com.coveo.feign.extractor.ErrorKey;
+import com.coveo.feign.extractor.ErrorKeyCache;
+import com.coveo.feign.extractor.ErrorKeyExtractor;
+import com.coveo.feign.extractor.ObjectReaderErrorKeyExtractor;
+import com.coveo.feign.filter.ErrorResponseFilter;
+import com.coveo.feign.filter.ErrorStormShortCircuit;
+import com.coveo.feign.hierarchy.CachedSpringClassHierarchySupplier;
+import com.coveo.feign.hierarchy.ClassHierarchySupplier;
+import com.coveo.feign.metrics.DecodeOutcome;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import feign.FeignException;
 import feign.Request;
 import feign.Request.Body;
 import feign.Request.HttpMethod;
 import feign.Response;
+import feign.RetryableException;
+import feign.Util;
 import feign.codec.ErrorDecoder;
+import feign.jackson.JacksonDecoder;
 
-@SuppressWarnings({"resource", "unused"})
+@SuppressWarnings({"resource", "unused", "unchecked"})
 @ExtendWith(MockitoExtension.class)
 public class ReflectionErrorDecoderTest {
   private static final String DUMMY_MESSAGE = "dummy message";
+  private static final String HTML_BODY = "<html><body>Not Found</body></html>";
   private static final Field EXCEPTION_THROWN_FIELD;
 
   static {
@@ -102,6 +136,84 @@ public class ReflectionErrorDecoderTest {
     assertThat(responseCaptor.getValue().body()).isNotEqualTo(response.body());
   }
 
+  @Test
+  public void testOversizedBodyIsTruncatedAndOnlyDecodedByFallback() throws Exception {
+    ReflectionErrorDecoder<ErrorCodeAndMessage, BaseServiceException> errorDecoder =
+        new ServiceExceptionErrorDecoder(
+            TestApiClassWithPlainExceptions.class, fallbackErrorDecoderMock) {
+          {
+            setMaxBodySize(10);
+          }
+        };
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    errorDecoder.decode("", response);
+
+    ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+    verify(fallbackErrorDecoderMock).decode(eq(""), responseCaptor.capture());
+
+    assertThat(responseCaptor.getValue().body().length()).isEqualTo(10);
+    assertThat(errorDecoder.getOversizedBodyCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testBodyOfMaxBodySizeIsDecoded() throws Exception {
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+    int bodySize = response.body().length();
+    ReflectionErrorDecoder<ErrorCodeAndMessage, BaseServiceException> errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setMaxBodySize(bodySize);
+          }
+        };
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(errorDecoder.getOversizedBodyCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testFilteredResponseIsOnlyDecodedByFallback() throws Exception {
+    ReflectionErrorDecoder<ErrorCodeAndMessage, BaseServiceException> errorDecoder =
+        new ServiceExceptionErrorDecoder(
+            TestApiClassWithPlainExceptions.class, fallbackErrorDecoderMock) {
+          {
+            setErrorResponseFilter(ErrorResponseFilter.jsonErrors());
+          }
+        };
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE)
+            .toBuilder()
+            .headers(Map.of("Content-Type", List.of("text/html")))
+            .build();
+
+    errorDecoder.decode("", response);
+
+    verify(fallbackErrorDecoderMock).decode(eq(""), Mockito.any(Response.class));
+  }
+
+  @Test
+  public void testAcceptedResponseIsDecoded() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorResponseFilter(ErrorResponseFilter.jsonErrors());
+          }
+        };
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE)
+            .toBuilder()
+            .headers(Map.of("Content-Type", List.of("application/json;charset=UTF-8")))
+            .build();
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+  }
+
   @Test
   public void testWithPlainExceptions() throws Exception {
     Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrown =
@@ -143,6 +255,25 @@ public class ReflectionErrorDecoderTest {
             ConcreteServiceException.ERROR_CODE, ConcreteSubServiceException.ERROR_CODE);
   }
 
+  @Test
+  public void testExceptionDeclaredOnManyMethodsIsProcessedOnce() throws Exception {
+    ClassHierarchySupplier classHierarchySupplier =
+        Mockito.spy(
+            new CachedSpringClassHierarchySupplier(BaseServiceException.class, "com.coveo.feign"));
+
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(
+            TestApiClassWithRepeatedInheritedExceptions.class, classHierarchySupplier);
+
+    verify(classHierarchySupplier, times(1))
+        .getSubClasses(eq(BaseNotAbstractException.class), Mockito.any());
+    assertThat(((Map<String, ?>) EXCEPTION_THROWN_FIELD.get(errorDecoder)).keySet())
+        .containsExactly(
+            BaseNotAbstractException.ERROR_CODE,
+            ChildOfBaseNotAbstractException.ERROR_CODE,
+            GrandChildOfBaseNotAbstractException.ERROR_CODE);
+  }
+
   @Test
   public void testWithNotAbstractInheritedExceptions() throws Exception {
     Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrown =
@@ -195,6 +326,103 @@ public class ReflectionErrorDecoderTest {
     assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
   }
 
+  @Test
+  public void testDecodeThrownExceptionWithStreamingErrorKeyExtraction() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setStreamingErrorKeyExtraction("errorCode", "message");
+          }
+        };
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+  }
+
+  @Test
+  public void testFallbackOnUnknownExceptionWithStreamingErrorKeyExtraction() throws Exception {
+    ReflectionErrorDecoder<ErrorCodeAndMessage, BaseServiceException> errorDecoder =
+        new ServiceExceptionErrorDecoder(
+            TestApiClassWithPlainExceptions.class, fallbackErrorDecoderMock) {
+          {
+            setStreamingErrorKeyExtraction("errorCode", "message");
+          }
+        };
+    Response response = getResponseWithErrorCode(UUID.randomUUID().toString(), DUMMY_MESSAGE);
+
+    errorDecoder.decode("", response);
+
+    verify(fallbackErrorDecoderMock).decode(eq(""), Mockito.any(Response.class));
+  }
+
+  @Test
+  public void testUnknownKeyIsReportedWithStreamingErrorKeyExtraction() throws Exception {
+    List<DecodeOutcome> outcomes = new ArrayList<>();
+    List<String> errorKeys = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setStreamingErrorKeyExtraction("errorCode", "message");
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos) -> {
+                  outcomes.add(outcome);
+                  errorKeys.add(errorKey);
+                });
+          }
+        };
+    String unknownKey = UUID.randomUUID().toString();
+
+    errorDecoder.decode("", getResponseWithErrorCode(unknownKey, DUMMY_MESSAGE));
+
+    assertThat(outcomes).containsExactly(DecodeOutcome.UNKNOWN_KEY);
+    assertThat(errorKeys).containsExactly(unknownKey);
+  }
+
+  @Test
+  public void testDecodeThrownExceptionWithCustomDecoder() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setDecoder(new JacksonDecoder());
+          }
+        };
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+  }
+
+  @Test
+  public void testDecodeThrownExceptionWithCustomErrorKeyExtractor() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorKeyExtractor(
+                (response, body)
+                    -> ErrorKey.of(
+                        ExceptionWithEmptyConstructorException.ERROR_CODE, response.reason()));
+          }
+
+          @Override
+          protected String getKeyFromResponse(ErrorCodeAndMessage apiResponse) {
+            throw new AssertionError("The response shouldn't be decoded.");
+          }
+        };
+    Response response = getResponseWithErrorCode("", "").toBuilder().reason(DUMMY_MESSAGE).build();
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+  }
+
   @Test
   public void testDecodeThrownExceptionWithHardcodedMessage() throws Exception {
     ServiceExceptionErrorDecoder errorDecoder =
@@ -299,6 +527,52 @@ public class ReflectionErrorDecoderTest {
     assertThat(exception.getCause().getStackTrace()).isEmpty();
   }
 
+  @Test
+  public void testDecodedExceptionHasStackTraceByDefault() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiWithStackTraceFreeConstructorException.class);
+    Response response =
+        getResponseWithErrorCode(
+            ExceptionWithStackTraceFreeConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithStackTraceFreeConstructorException.class);
+    assertThat(exception.getStackTrace()).isNotEmpty();
+  }
+
+  @Test
+  public void testStackTraceFreeConstructorIsUsedWhenStackTraceIsDisabled() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        getStackTraceFreeErrorDecoder(TestApiWithStackTraceFreeConstructorException.class);
+    Response response =
+        getResponseWithErrorCode(
+            ExceptionWithStackTraceFreeConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithStackTraceFreeConstructorException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+    assertThat(exception.getCause()).isNull();
+    assertThat(exception.getStackTrace()).isEmpty();
+    exception.setStackTrace(new Throwable().getStackTrace());
+    assertThat(exception.getStackTrace()).isEmpty();
+  }
+
+  @Test
+  public void testStackTraceIsClearedWhenStackTraceIsDisabled() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        getStackTraceFreeErrorDecoder(TestApiWithStackTraceFreeConstructorException.class);
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+    assertThat(exception.getStackTrace()).isEmpty();
+  }
+
   @Test
   public void testBestConstructorIsSelectedWithOnlyThrowablesArgumentConstructors()
       throws Exception {
@@ -316,6 +590,63 @@ public class ReflectionErrorDecoderTest {
     assertThat(exception.getCause()).isNotNull();
   }
 
+  @Test
+  public void testMessageIsSetOnExceptionDetailsWithoutClass() throws Exception {
+    ThrownExceptionDetails<RuntimeException> exceptionDetails =
+        new ThrownExceptionDetails<RuntimeException>()
+            .withExceptionSupplier(AdditionalRuntimeException::new);
+
+    RuntimeException exception = exceptionDetails.instantiate(DUMMY_MESSAGE);
+
+    assertThat(exception).isInstanceOf(AdditionalRuntimeException.class);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+  }
+
+  @Test
+  public void testPrototypeExceptionsAreDistinctClones() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiWithInstantiationStrategies.class);
+    Response response = getResponseWithErrorCode(PrototypeException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+    Exception otherException = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(PrototypeException.class);
+    assertThat(exception).isNotSameInstanceAs(otherException);
+    assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+    assertThat(exception.getCause()).isNull();
+    assertThat(exception.getStackTrace()).isEmpty();
+  }
+
+  @Test
+  public void testSingletonExceptionsAreShared() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiWithInstantiationStrategies.class);
+    Response response = getResponseWithErrorCode(SingletonException.ERROR_CODE, DUMMY_MESSAGE);
+
+    Exception exception = errorDecoder.decode("", response);
+    exception.addSuppressed(new IllegalStateException());
+
+    assertThat(exception).isInstanceOf(SingletonException.class);
+    assertThat(errorDecoder.decode("", response)).isSameInstanceAs(exception);
+    assertThat(exception.getStackTrace()).isEmpty();
+    assertThat(exception.getSuppressed()).isEmpty();
+  }
+
+  @Test
+  public void shouldThrowOnPrototypeExceptionsNotCloneable() throws Exception {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ServiceExceptionErrorDecoder(TestApiWithInvalidPrototypeException.class));
+  }
+
+  @Test
+  public void shouldThrowOnSingletonExceptionsWithAMessageSetter() throws Exception {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new ServiceExceptionErrorDecoder(TestApiWithInvalidSingletonException.class));
+  }
+
   @Test
   public void testAdditionalRuntimeException() throws Exception {
     ServiceExceptionErrorDecoder errorDecoder =
@@ -358,6 +689,61 @@ public class ReflectionErrorDecoderTest {
         .isEqualTo(AdditionalNotInterfacedRuntimeException.ERROR_MESSAGE);
   }
 
+  @Test
+  public void testExceptionDetailsAreSharedAcrossInterfaces() throws Exception {
+    Map<String, ThrownExceptionDetails<ServiceException>> plainExceptionsThrown =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithPlainExceptions.class);
+    Map<String, ThrownExceptionDetails<ServiceException>> springExceptionsThrown =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithSpringAnnotations.class);
+
+    assertThat(springExceptionsThrown.get(ExceptionWithEmptyConstructorException.ERROR_CODE))
+        .isSameInstanceAs(
+            plainExceptionsThrown.get(ExceptionWithEmptyConstructorException.ERROR_CODE));
+  }
+
+  @Test
+  public void testExceptionDetailsAreNotSharedAcrossDecoderClasses() throws Exception {
+    Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrown =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithPlainExceptions.class);
+    Map<String, ThrownExceptionDetails<ServiceException>> stackTraceFreeExceptionsThrown =
+        (Map<String, ThrownExceptionDetails<ServiceException>>)
+            EXCEPTION_THROWN_FIELD.get(
+                getStackTraceFreeErrorDecoder(TestApiClassWithPlainExceptions.class));
+
+    assertThat(
+            stackTraceFreeExceptionsThrown.get(ExceptionWithEmptyConstructorException.ERROR_CODE))
+        .isNotSameInstanceAs(
+            exceptionsThrown.get(ExceptionWithEmptyConstructorException.ERROR_CODE));
+  }
+
+  @Test
+  public void testRegisteredExceptionDetailsCantBeModified() throws Exception {
+    Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrown =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithPlainExceptions.class);
+
+    assertThrows(
+        IllegalStateException.class,
+        ()
+            -> exceptionsThrown
+                .get(ExceptionWithEmptyConstructorException.ERROR_CODE)
+                .setErrorCode("ANOTHER_CODE"));
+  }
+
+  @Test
+  public void testExceptionsAreResolvedAgainOnceTheRegistryIsCleared() throws Exception {
+    Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrown =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithPlainExceptions.class);
+
+    ThrownExceptionRegistry.clear();
+
+    Map<String, ThrownExceptionDetails<ServiceException>> exceptionsThrownAfterClear =
+        getExceptionsThrownMapFromErrorDecoder(TestApiClassWithPlainExceptions.class);
+    assertThat(exceptionsThrownAfterClear.keySet()).isEqualTo(exceptionsThrown.keySet());
+    assertThat(exceptionsThrownAfterClear.get(ExceptionWithEmptyConstructorException.ERROR_CODE))
+        .isNotSameInstanceAs(
+            exceptionsThrown.get(ExceptionWithEmptyConstructorException.ERROR_CODE));
+  }
+
   @Test
   public void shouldThrowOnDistinctExceptionsWithTheSameErrorCode() throws Exception {
     assertThrows(
@@ -365,6 +751,274 @@ public class ReflectionErrorDecoderTest {
         () -> new ServiceExceptionErrorDecoder(TestApiClassWithDuplicateErrorCodeException.class));
   }
 
+  @Test
+  public void testLazyInitializationIsDoneOnFirstDecode() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        getErrorDecoderWithInitializationMode(
+            TestApiClassWithPlainExceptions.class, InitializationMode.LAZY, Runnable::run);
+
+    assertThat((Map<String, ?>) EXCEPTION_THROWN_FIELD.get(errorDecoder)).isEmpty();
+
+    Exception exception =
+        errorDecoder.decode(
+            "",
+            getResponseWithErrorCode(
+                ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE));
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+  }
+
+  @Test
+  public void testLazyInitializationThrowsOnDecode() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        getErrorDecoderWithInitializationMode(
+            TestApiClassWithDuplicateErrorCodeException.class,
+            InitializationMode.LAZY,
+            Runnable::run);
+    Response response = getResponseWithErrorCode(UUID.randomUUID().toString(), DUMMY_MESSAGE);
+
+    assertThrows(IllegalStateException.class, () -> errorDecoder.decode("", response));
+  }
+
+  @Test
+  public void testBackgroundInitializationIsDoneOnTheInitializationExecutor() throws Exception {
+    List<Runnable> initializationTasks = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        getErrorDecoderWithInitializationMode(
+            TestApiClassWithPlainExceptions.class,
+            InitializationMode.BACKGROUND,
+            initializationTasks::add);
+
+    assertThat(initializationTasks).isEmpty();
+
+    errorDecoder.startInitialization();
+    errorDecoder.startInitialization();
+
+    assertThat(initializationTasks).hasSize(1);
+    assertThat((Map<String, ?>) EXCEPTION_THROWN_FIELD.get(errorDecoder)).isEmpty();
+
+    initializationTasks.get(0).run();
+
+    assertThat((Map<String, ?>) EXCEPTION_THROWN_FIELD.get(errorDecoder))
+        .containsKey(ExceptionWithEmptyConstructorException.ERROR_CODE);
+  }
+
+  @Test
+  public void testIdenticalErrorBodiesAreOnlyExtractedOnceWithTheErrorKeyCache() throws Exception {
+    ErrorKeyCache errorKeyCache = new ErrorKeyCache(10, Duration.ofMinutes(1));
+    AtomicInteger extractionCount = new AtomicInteger();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            ErrorKeyExtractor extractor =
+                new ObjectReaderErrorKeyExtractor<>(
+                    ErrorCodeAndMessage.class,
+                    ErrorCodeAndMessage::getErrorCode,
+                    ErrorCodeAndMessage::getMessage);
+            setErrorKeyExtractor(
+                (response, body) -> {
+                  extractionCount.incrementAndGet();
+                  return extractor.extract(response, body);
+                });
+            setErrorKeyCache(errorKeyCache);
+          }
+        };
+
+    for (int i = 0; i < 3; i++) {
+      Exception exception =
+          errorDecoder.decode(
+              "",
+              getResponseWithErrorCode(
+                  ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE));
+
+      assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+      assertThat(exception.getMessage()).isEqualTo(DUMMY_MESSAGE);
+    }
+    assertThat(extractionCount.get()).isEqualTo(1);
+    assertThat(errorKeyCache.getHitCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testErrorStormIsShortCircuitedWithoutReadingTheBody() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder = getShortCircuitedErrorDecoder();
+    for (int i = 0; i < 3; i++) {
+      errorDecoder.decode("", getServerErrorResponse(new HashMap<>()));
+    }
+    Response.Body body = Mockito.mock(Response.Body.class);
+    Response response =
+        getResponseWithErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE)
+            .toBuilder()
+            .status(503)
+            .body(body)
+            .build();
+
+    Exception exception = errorDecoder.decode("", response);
+
+    assertThat(exception).isInstanceOf(FeignException.ServiceUnavailable.class);
+    verify(body).close();
+    verify(body, times(0)).asInputStream();
+  }
+
+  @Test
+  public void testShortCircuitedResponseWithRetryAfterIsRetryable() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder = getShortCircuitedErrorDecoder();
+    for (int i = 0; i < 3; i++) {
+      errorDecoder.decode("", getServerErrorResponse(new HashMap<>()));
+    }
+    Map<String, Collection<String>> headers = new HashMap<>();
+    headers.put(Util.RETRY_AFTER, List.of("1"));
+
+    Exception exception = errorDecoder.decode("", getServerErrorResponse(headers));
+
+    assertThat(exception).isInstanceOf(RetryableException.class);
+    assertThat(((RetryableException) exception).status()).isEqualTo(503);
+  }
+
+  @Test
+  public void testBodylessNotFoundResponsesAreNeverShortCircuited() throws Exception {
+    List<DecodeOutcome> outcomes = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorStormShortCircuit(new ErrorStormShortCircuit(3, 1, Duration.ofMinutes(1)));
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos)
+                    -> outcomes.add(outcome));
+          }
+        };
+
+    for (int i = 0; i < 10; i++) {
+      Exception exception =
+          errorDecoder.decode(
+              "",
+              Response.builder()
+                  .status(404)
+                  .reason("")
+                  .headers(new HashMap<>())
+                  .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+                  .build());
+      assertThat(exception).isInstanceOf(FeignException.NotFound.class);
+    }
+
+    assertThat(outcomes).doesNotContain(DecodeOutcome.SHORT_CIRCUITED);
+  }
+
+  @Test
+  public void testNotFoundResponsesWithAnHtmlBodyAreNeverShortCircuited() throws Exception {
+    List<DecodeOutcome> outcomes = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorStormShortCircuit(new ErrorStormShortCircuit(3, 1, Duration.ofMinutes(1)));
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos)
+                    -> outcomes.add(outcome));
+          }
+        };
+
+    for (int i = 0; i < 10; i++) {
+      Exception exception = errorDecoder.decode("", getHtmlResponse(404));
+      assertThat(exception).isInstanceOf(FeignException.NotFound.class);
+      assertThat(((FeignException) exception).contentUTF8()).isEqualTo(HTML_BODY);
+    }
+
+    assertThat(outcomes)
+        .containsExactlyElementsIn(Collections.nCopies(10, DecodeOutcome.PARSE_ERROR));
+  }
+
+  @Test
+  public void testFilteredServerErrorsAreShortCircuited() throws Exception {
+    List<DecodeOutcome> outcomes = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setErrorResponseFilter(ErrorResponseFilter.jsonErrors());
+            setErrorStormShortCircuit(new ErrorStormShortCircuit(3, 1, Duration.ofMinutes(1)));
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos)
+                    -> outcomes.add(outcome));
+          }
+        };
+
+    for (int i = 0; i < 4; i++) {
+      Exception exception = errorDecoder.decode("", getHtmlResponse(502));
+      assertThat(exception).isInstanceOf(FeignException.BadGateway.class);
+    }
+
+    assertThat(outcomes)
+        .containsExactly(
+            DecodeOutcome.FILTERED,
+            DecodeOutcome.FILTERED,
+            DecodeOutcome.FILTERED,
+            DecodeOutcome.SHORT_CIRCUITED)
+        .inOrder();
+  }
+
+  @Test
+  public void testDecodeAsyncIsDoneOnTheAsyncDecodeExecutor() throws Exception {
+    List<Runnable> decodeTasks = new ArrayList<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setAsyncDecodeExecutor(decodeTasks::add);
+          }
+        };
+
+    CompletableFuture<Exception> exception =
+        errorDecoder.decodeAsync(
+            "",
+            getResponseWithErrorCode(
+                ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE));
+
+    assertThat(exception.isDone()).isFalse();
+    assertThat(decodeTasks).hasSize(1);
+
+    decodeTasks.get(0).run();
+
+    assertThat(exception.get()).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+  }
+
+  @Test
+  public void testDecodeAsyncIsNotDoneOnTheCommonPoolByDefault() throws Exception {
+    AtomicReference<Thread> decodingThread = new AtomicReference<>();
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setDecodeListener(
+                (apiClass, methodKey, status, errorKey, outcome, bodySize, durationNanos)
+                    -> decodingThread.set(Thread.currentThread()));
+          }
+        };
+
+    Exception exception =
+        errorDecoder
+            .decodeAsync(
+                "",
+                getResponseWithErrorCode(
+                    ExceptionWithEmptyConstructorException.ERROR_CODE, DUMMY_MESSAGE))
+            .get();
+
+    assertThat(exception).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+    assertThat(decodingThread.get().isDaemon()).isTrue();
+    assertThat(decodingThread.get()).isNotInstanceOf(ForkJoinWorkerThread.class);
+  }
+
+  @Test
+  public void testDecodeAsyncCompletesExceptionallyWhenTheLazyInitializationFails()
+      throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        getErrorDecoderWithInitializationMode(
+            TestApiClassWithDuplicateErrorCodeException.class,
+            InitializationMode.LAZY,
+            Runnable::run);
+    Response response = getResponseWithErrorCode(UUID.randomUUID().toString(), DUMMY_MESSAGE);
+
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> errorDecoder.decodeAsync("", response).get());
+
+    assertThat(exception).hasCauseThat().isInstanceOf(IllegalStateException.class);
+  }
+
   @Test
   public void shouldThrowOnExceptionsWithTheNoErrorCode() throws Exception {
     assertThrows(
@@ -387,6 +1041,57 @@ public class ReflectionErrorDecoderTest {
         .build();
   }
 
+  private Response getHtmlResponse(int status) {
+    return Response.builder()
+        .status(status)
+        .reason("")
+        .headers(Map.of("Content-Type", List.of("text/html")))
+        .body(HTML_BODY, StandardCharsets.UTF_8)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+
+  private ServiceExceptionErrorDecoder getShortCircuitedErrorDecoder() {
+    return new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+      {
+        setErrorStormShortCircuit(new ErrorStormShortCircuit(3, 1, Duration.ofMinutes(1)));
+      }
+    };
+  }
+
+  private Response getServerErrorResponse(Map<String, Collection<String>> headers)
+      throws JsonProcessingException {
+    return getResponseWithErrorCode(UUID.randomUUID().toString(), DUMMY_MESSAGE)
+        .toBuilder()
+        .status(503)
+        .headers(headers)
+        .build();
+  }
+
+  private ServiceExceptionErrorDecoder getErrorDecoderWithInitializationMode(
+      Class<?> apiInterface, InitializationMode initializationMode, Executor executor) {
+    return new ServiceExceptionErrorDecoder(apiInterface) {
+      @Override
+      protected InitializationMode getInitializationMode() {
+        return initializationMode;
+      }
+
+      @Override
+      protected Executor getInitializationExecutor() {
+        return executor;
+      }
+    };
+  }
+
+  private ServiceExceptionErrorDecoder getStackTraceFreeErrorDecoder(Class<?> apiInterface) {
+    return new ServiceExceptionErrorDecoder(apiInterface) {
+      @Override
+      protected boolean isStackTraceEnabled() {
+        return false;
+      }
+    };
+  }
+
   @SuppressWarnings("unchecked")
   private Map<String, ThrownExceptionDetails<ServiceException>>
       getExceptionsThrownMapFromErrorDecoder(Class<?> apiInterface) throws Exception {
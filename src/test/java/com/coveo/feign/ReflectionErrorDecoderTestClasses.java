@@ -7,6 +7,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.coveo.feign.annotation.ExceptionInstantiation;
+import com.coveo.feign.annotation.ExceptionInstantiation.Strategy;
 import com.coveo.feign.annotation.ExceptionMessageSetter;
 
 import feign.RequestLine;
@@ -23,6 +25,33 @@ public class ReflectionErrorDecoderTestClasses {
         throws MultipleConstructorsWithOnlyThrowableArgumentsException;
   }
 
+  public interface TestApiWithStackTraceFreeConstructorException {
+    @RequestLine(value = "")
+    void methodWithStackTraceFreeConstructorException()
+        throws ExceptionWithStackTraceFreeConstructorException;
+
+    @RequestLine(value = "")
+    void methodWithEmptyConstructorException() throws ExceptionWithEmptyConstructorException;
+  }
+
+  public interface TestApiWithInstantiationStrategies {
+    @RequestLine(value = "")
+    void methodWithPrototypeException() throws PrototypeException;
+
+    @RequestLine(value = "")
+    void methodWithSingletonException() throws SingletonException;
+  }
+
+  public interface TestApiWithInvalidPrototypeException {
+    @RequestLine(value = "")
+    void methodWithInvalidPrototypeException() throws NotCloneablePrototypeException;
+  }
+
+  public interface TestApiWithInvalidSingletonException {
+    @RequestLine(value = "")
+    void methodWithInvalidSingletonException() throws StatefulSingletonException;
+  }
+
   public interface TestApiWithExceptionsNotExtendingServiceException {
     @RequestLine(value = "")
     void methodWithEmptyConstructorException() throws Exception;
@@ -116,6 +145,14 @@ public class ReflectionErrorDecoderTestClasses {
     void methodWithInheritedNotAbstractException() throws BaseNotAbstractException;
   }
 
+  public interface TestApiClassWithRepeatedInheritedExceptions {
+    @RequestLine("")
+    void methodWithInheritedNotAbstractException() throws BaseNotAbstractException;
+
+    @RequestLine("")
+    void anotherMethodWithInheritedNotAbstractException() throws BaseNotAbstractException;
+  }
+
   public interface TestApiClassWithDuplicateErrorCodeException {
     @RequestLine("")
     void methodWithDuplicateErrorCodeException()
@@ -355,6 +392,79 @@ public class ReflectionErrorDecoderTestClasses {
     }
   }
 
+  public static class ExceptionWithStackTraceFreeConstructorException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "NOBODY KNOWS WHERE I COME FROM";
+
+    public ExceptionWithStackTraceFreeConstructorException() {
+      super(ERROR_CODE);
+    }
+
+    public ExceptionWithStackTraceFreeConstructorException(
+        String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+      super(ERROR_CODE, message, cause, enableSuppression, writableStackTrace);
+    }
+  }
+
+  @ExceptionInstantiation(Strategy.PROTOTYPE)
+  public static class PrototypeException extends ServiceException implements Cloneable {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "SAME AS ALWAYS";
+
+    public PrototypeException() {
+      super(ERROR_CODE);
+    }
+
+    @Override
+    public PrototypeException clone() {
+      try {
+        return (PrototypeException) super.clone();
+      } catch (CloneNotSupportedException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  @ExceptionInstantiation(Strategy.PROTOTYPE)
+  public static class NotCloneablePrototypeException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "NOT A CLONE";
+
+    public NotCloneablePrototypeException() {
+      super(ERROR_CODE);
+    }
+  }
+
+  @ExceptionInstantiation(Strategy.SINGLETON)
+  public static class SingletonException extends BaseServiceException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "THERE CAN BE ONLY ONE";
+
+    public SingletonException() {
+      super(ERROR_CODE);
+    }
+
+    public SingletonException(
+        String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+      super(ERROR_CODE, message, cause, enableSuppression, writableStackTrace);
+    }
+  }
+
+  @ExceptionInstantiation(Strategy.SINGLETON)
+  public static class StatefulSingletonException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "THERE CAN BE MANY";
+
+    public StatefulSingletonException() {
+      super(ERROR_CODE);
+    }
+
+    public StatefulSingletonException(
+        String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+      super(ERROR_CODE, message, cause, enableSuppression, writableStackTrace);
+    }
+  }
+
   public static class BaseNotAbstractException extends ServiceException {
     private static final long serialVersionUID = 1L;
     public static final String ERROR_CODE = "ABSTRACT CONSIDERED HARMFUL";
@@ -23,6 +23,15 @@ public abstract class ServiceException extends BaseServiceException
     super(errorCode, message, innerException);
   }
 
+  protected ServiceException(
+      String errorCode,
+      String message,
+      Throwable innerException,
+      boolean enableSuppression,
+      boolean writableStackTrace) {
+    super(errorCode, message, innerException, enableSuppression, writableStackTrace);
+  }
+
   @Override
   public void setExceptionMessage(String detailMessage) {
     this.detailMessage = detailMessage;
@@ -3,6 +3,8 @@ package com.coveo.feign;
 import java.util.Map;
 import static com.coveo.feign.ReflectionErrorDecoderTestClasses.*;
 
+import com.coveo.feign.hierarchy.ClassHierarchySupplier;
+
 import feign.codec.ErrorDecoder;
 
 public class ServiceExceptionErrorDecoder
@@ -17,6 +19,16 @@ public class ServiceExceptionErrorDecoder
     setFallbackErrorDecoder(fallbackErrorDecoder);
   }
 
+  public ServiceExceptionErrorDecoder(
+      Class<?> apiClass, ClassHierarchySupplier classHierarchySupplier) {
+    super(
+        apiClass,
+        ErrorCodeAndMessage.class,
+        BaseServiceException.class,
+        "com.coveo.feign",
+        classHierarchySupplier);
+  }
+
   @Override
   protected String getKeyFromException(BaseServiceException exception) {
     return exception.getErrorCode();
@@ -0,0 +1,165 @@
+package com.coveo.feign;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Decodes errors from many virtual threads while recording the {@code jdk.VirtualThreadPinned}
+ * events, which are emitted when a virtual thread blocks while holding a monitor and thus pins its
+ * carrier thread. The virtual threads are created by reflection since the sources target Java 11.
+ */
+@EnabledIf("isVirtualThreadAvailable")
+public class VirtualThreadDecodeTest {
+  private static final int DECODE_COUNT = 10_000;
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  @Test
+  public void testConcurrentDecodesDoNotPinCarrierThreads() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          @Override
+          protected InitializationMode getInitializationMode() {
+            return InitializationMode.LAZY;
+          }
+        };
+    byte[] body =
+        new ObjectMapper()
+            .writeValueAsBytes(
+                new ErrorCodeAndMessage()
+                    .withErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE));
+
+    Path recordingFile = Files.createTempFile("virtual-thread-decode", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+      recording.start();
+
+      List<Future<Exception>> exceptions = new ArrayList<>();
+      ExecutorService executor = newVirtualThreadPerTaskExecutor();
+      for (int i = 0; i < DECODE_COUNT; i++) {
+        exceptions.add(executor.submit(() -> errorDecoder.decode("", getSlowResponse(body))));
+      }
+      executor.shutdown();
+      for (Future<Exception> exception : exceptions) {
+        assertThat(exception.get()).isInstanceOf(ExceptionWithEmptyConstructorException.class);
+      }
+
+      recording.stop();
+      recording.dump(recordingFile);
+      List<RecordedEvent> pinnedEvents =
+          RecordingFile.readAllEvents(recordingFile)
+              .stream()
+              .filter(event -> event.getEventType().getName().equals(PINNED_EVENT))
+              .collect(Collectors.toList());
+      assertThat(pinnedEvents).isEmpty();
+    } finally {
+      Files.delete(recordingFile);
+    }
+  }
+
+  static boolean isVirtualThreadAvailable() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+    return (ExecutorService)
+        Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+  }
+
+  // The body blocks on its first read, like a body still arriving from the network
+  private static Response getSlowResponse(byte[] body) {
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(new SlowBody(body))
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+
+  private static class SlowBody implements Response.Body {
+    private final byte[] data;
+
+    SlowBody(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public Integer length() {
+      return data.length;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return false;
+    }
+
+    @Override
+    public InputStream asInputStream() {
+      return new InputStream() {
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+          byte[] next = new byte[1];
+          return read(next, 0, 1) == -1 ? -1 : next[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+          if (position == 0) {
+            try {
+              Thread.sleep(1);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new IOException(e);
+            }
+          }
+          if (position == data.length) {
+            return -1;
+          }
+          int count = Math.min(length, data.length - position);
+          System.arraycopy(data, position, buffer, offset, count);
+          position += count;
+          return count;
+        }
+      };
+    }
+
+    @Override
+    public Reader asReader(Charset charset) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
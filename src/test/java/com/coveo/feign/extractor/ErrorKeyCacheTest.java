@@ -0,0 +1,163 @@
+package com.coveo.feign.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+public class ErrorKeyCacheTest {
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+  private int extractionCount;
+  private ErrorKeyExtractor extractor =
+      (response, body) -> {
+        extractionCount++;
+        String text = new String(body, StandardCharsets.UTF_8);
+        return text.isEmpty() ? null : ErrorKey.of(text, "message of " + text);
+      };
+
+  @Test
+  public void testIdenticalBodyIsOnlyExtractedOnce() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE);
+
+    ErrorKey first = extract(cache, 400, "SOME_KEY");
+    ErrorKey second = extract(cache, 400, "SOME_KEY");
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(extractionCount).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testBodiesAreCachedPerStatus() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE);
+
+    extract(cache, 400, "SOME_KEY");
+    extract(cache, 503, "SOME_KEY");
+
+    assertThat(extractionCount).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testDifferentBodiesAreNotShared() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE);
+
+    assertThat(extract(cache, 400, "SOME_KEY").getKey()).isEqualTo("SOME_KEY");
+    assertThat(extract(cache, 400, "OTHER_KEY").getKey()).isEqualTo("OTHER_KEY");
+  }
+
+  @Test
+  public void testBodyWithoutKeyIsCached() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE);
+
+    assertThat(extract(cache, 400, "")).isNull();
+    assertThat(extract(cache, 400, "")).isNull();
+
+    assertThat(extractionCount).isEqualTo(1);
+  }
+
+  @Test
+  public void testExpiredKeyIsExtractedAgain() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, Duration.ofNanos(1));
+
+    extract(cache, 400, "SOME_KEY");
+    Thread.sleep(1);
+    extract(cache, 400, "SOME_KEY");
+
+    assertThat(extractionCount).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCacheIsBounded() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(2, TIME_TO_LIVE);
+
+    extract(cache, 400, "FIRST_KEY");
+    extract(cache, 400, "SECOND_KEY");
+    extract(cache, 400, "THIRD_KEY");
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testFullCacheIsEvictedInBatches() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(100, TIME_TO_LIVE);
+
+    for (int i = 0; i < 100; i++) {
+      extract(cache, 400, "KEY_" + i);
+    }
+    extract(cache, 400, "KEY_100");
+
+    assertThat(cache.size()).isEqualTo(91);
+    assertThat(cache.getEvictionCount()).isEqualTo(10);
+
+    // Bodies that are all different, like errors holding a request id
+    for (int i = 101; i < 10_000; i++) {
+      extract(cache, 400, "KEY_" + i);
+      assertThat(cache.size()).isAtMost(100);
+    }
+    assertThat(cache.getMissCount()).isEqualTo(10_000);
+    assertThat(cache.getEvictionCount()).isEqualTo(10_000 - cache.size());
+  }
+
+  @Test
+  public void testLargerBodyIsNotCached() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE, 4);
+
+    extract(cache, 400, "SOME_KEY");
+    extract(cache, 400, "SOME_KEY");
+
+    assertThat(extractionCount).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(0);
+    assertThat(cache.getMissCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testExtractionFailureIsNotCached() throws Exception {
+    ErrorKeyCache cache = new ErrorKeyCache(10, TIME_TO_LIVE);
+    extractor =
+        (response, body) -> {
+          extractionCount++;
+          throw new IOException("Not JSON");
+        };
+
+    assertThrows(IOException.class, () -> extract(cache, 400, "<html>"));
+    assertThrows(IOException.class, () -> extract(cache, 400, "<html>"));
+
+    assertThat(extractionCount).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testInvalidConfigurationIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new ErrorKeyCache(0, TIME_TO_LIVE));
+    assertThrows(IllegalArgumentException.class, () -> new ErrorKeyCache(10, Duration.ZERO));
+  }
+
+  private ErrorKey extract(ErrorKeyCache cache, int status, String body) throws IOException {
+    // A new array every time, like the buffered body of every response
+    byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    Response response =
+        Response.builder()
+            .status(status)
+            .reason("")
+            .headers(new HashMap<>())
+            .body(bodyBytes)
+            .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+            .build();
+    return cache.extract(response, bodyBytes, null, extractor);
+  }
+}
@@ -0,0 +1,151 @@
+package com.coveo.feign.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ErrorCodeTable;
+
+public class JacksonStreamingErrorKeyExtractorTest {
+  private static final String ERROR_CODE = "errorCode";
+  private static final String MESSAGE = "message";
+
+  private JacksonStreamingErrorKeyExtractor extractor =
+      new JacksonStreamingErrorKeyExtractor(ERROR_CODE, MESSAGE);
+
+  @Test
+  public void testExtractKeyAndMessage() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null, toBytes("{\"message\":\"some message\",\"errorCode\":\"SOME_KEY\"}"));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isEqualTo("some message");
+  }
+
+  @Test
+  public void testNestedAndUnknownFieldsAreSkipped() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null,
+            toBytes(
+                "{\"details\":{\"errorCode\":\"NESTED\",\"values\":[1,2,{\"message\":\"nested\"}]},"
+                    + "\"errorCode\":\"SOME_KEY\"}"));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isNull();
+  }
+
+  @Test
+  public void testNestedKeyInMessageIsNotTheKey() throws Exception {
+    assertThat(extractor.extract(null, toBytes("{\"message\":{\"errorCode\":\"NESTED\"}}")))
+        .isNull();
+  }
+
+  @Test
+  public void testKeyAfterObjectMessageIsFound() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null, toBytes("{\"message\":{\"a\":1},\"other\":2,\"errorCode\":\"SOME_KEY\"}"));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isNull();
+  }
+
+  @Test
+  public void testKeyAfterArrayMessageIsFound() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null, toBytes("{\"message\":[{\"errorCode\":\"NESTED\"}],\"errorCode\":\"SOME_KEY\"}"));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+  }
+
+  @Test
+  public void testObjectKeyIsNotAKey() throws Exception {
+    assertThat(
+            extractor.extract(
+                null, toBytes("{\"errorCode\":{\"errorCode\":\"NESTED\"},\"message\":\"m\"}")))
+        .isNull();
+  }
+
+  @Test
+  public void testParsingStopsOnceBothFieldsAreFound() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null,
+            toBytes("{\"errorCode\":\"SOME_KEY\",\"message\":\"some message\", this isn't json"));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isEqualTo("some message");
+  }
+
+  @Test
+  public void testOnlyTheFirstBytesAreParsed() throws Exception {
+    String body = "{\"errorCode\":\"SOME_KEY\",\"message\":\"" + "a".repeat(100) + "\"}";
+
+    ErrorKey errorKey =
+        new JacksonStreamingErrorKeyExtractor(ERROR_CODE, MESSAGE, 50).extract(null, toBytes(body));
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isNull();
+  }
+
+  @Test
+  public void testTruncatedBodyWithoutKeyFails() throws Exception {
+    String body = "{\"message\":\"" + "a".repeat(100) + "\",\"errorCode\":\"SOME_KEY\"}";
+
+    assertThrows(
+        IOException.class,
+        ()
+            -> new JacksonStreamingErrorKeyExtractor(ERROR_CODE, MESSAGE, 50)
+                .extract(null, toBytes(body)));
+  }
+
+  @Test
+  public void testBodyWithoutKey() throws Exception {
+    assertThat(extractor.extract(null, toBytes("{\"message\":\"some message\"}"))).isNull();
+    assertThat(extractor.extract(null, toBytes("[\"errorCode\"]"))).isNull();
+    assertThat(extractor.extract(null, new byte[0])).isNull();
+  }
+
+  @Test
+  public void testKnownKeyIsTheKnownInstance() throws Exception {
+    String knownKey = "SOME_KEY";
+    ErrorKey errorKey =
+        extractor.extract(
+            null,
+            toBytes("{\"errorCode\":\"SOME_KEY\",\"message\":\"some message\"}"),
+            new ErrorCodeTable<>(Map.of(knownKey, "value")));
+
+    assertThat(errorKey.getKey()).isSameInstanceAs(knownKey);
+    assertThat(errorKey.getMessage()).isEqualTo("some message");
+  }
+
+  @Test
+  public void testUnknownKeyStopsTheParsing() throws Exception {
+    ErrorKey errorKey =
+        extractor.extract(
+            null,
+            toBytes("{\"errorCode\":\"UNKNOWN_KEY\", this isn't json"),
+            new ErrorCodeTable<>(Map.of("SOME_KEY", "value")));
+
+    assertThat(errorKey.getKey()).isEqualTo("UNKNOWN_KEY");
+    assertThat(errorKey.getMessage()).isNull();
+  }
+
+  @Test
+  public void testBodyNotJson() throws Exception {
+    assertThrows(
+        IOException.class, () -> extractor.extract(null, toBytes("<html>Bad Gateway</html>")));
+  }
+
+  private static byte[] toBytes(String body) {
+    return body.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,81 @@
+package com.coveo.feign.extractor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ErrorCodeAndMessage;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+public class ObjectReaderErrorKeyExtractorTest {
+  private ObjectReaderErrorKeyExtractor<ErrorCodeAndMessage> extractor =
+      new ObjectReaderErrorKeyExtractor<>(
+          ErrorCodeAndMessage.class,
+          ErrorCodeAndMessage::getErrorCode,
+          ErrorCodeAndMessage::getMessage);
+
+  @Test
+  public void testExtractKeyAndMessage() throws Exception {
+    ErrorKey errorKey =
+        extract(
+            "{\"errorCode\":\"SOME_KEY\",\"message\":\"some message\",\"unknown\":true}",
+            StandardCharsets.UTF_8);
+
+    assertThat(errorKey.getKey()).isEqualTo("SOME_KEY");
+    assertThat(errorKey.getMessage()).isEqualTo("some message");
+  }
+
+  @Test
+  public void testExtractFromBodyWithAnotherCharset() throws Exception {
+    ErrorKey errorKey =
+        extract(
+            "{\"errorCode\":\"SOME_KEY\",\"message\":\"déjà vu\"}", StandardCharsets.ISO_8859_1);
+
+    assertThat(errorKey.getMessage()).isEqualTo("déjà vu");
+  }
+
+  @Test
+  public void testEmptyBody() throws Exception {
+    assertThat(extract("", StandardCharsets.UTF_8)).isNull();
+  }
+
+  @Test
+  public void testBodyNotJson() throws Exception {
+    assertThrows(
+        IOException.class, () -> extract("<html>Bad Gateway</html>", StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testObjectReadersAreShared() throws Exception {
+    assertThat(SharedObjectReaders.forType(ErrorCodeAndMessage.class))
+        .isSameInstanceAs(SharedObjectReaders.forType(ErrorCodeAndMessage.class));
+  }
+
+  private ErrorKey extract(String body, Charset charset) throws IOException {
+    Map<String, Collection<String>> headers = new HashMap<>();
+    headers.put("Content-Type", List.of("application/json; charset=" + charset.name()));
+    byte[] bodyData = body.getBytes(charset);
+    Response response =
+        Response.builder()
+            .status(400)
+            .reason("")
+            .headers(headers)
+            .body(bodyData)
+            .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+            .build();
+    return extractor.extract(response, bodyData);
+  }
+}
@@ -0,0 +1,85 @@
+package com.coveo.feign.filter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+public class ErrorResponseFilterTest {
+  @Test
+  public void testAcceptAll() {
+    ErrorResponseFilter filter = ErrorResponseFilter.acceptAll();
+
+    assertThat(filter.accepts(getResponse(200, null))).isTrue();
+    assertThat(filter.accepts(getResponse(502, "text/html"))).isTrue();
+  }
+
+  @Test
+  public void testJsonErrors() {
+    ErrorResponseFilter filter = ErrorResponseFilter.jsonErrors();
+
+    assertThat(filter.accepts(getResponse(400, "application/json"))).isTrue();
+    assertThat(filter.accepts(getResponse(599, "Application/JSON; charset=UTF-8"))).isTrue();
+    assertThat(filter.accepts(getResponse(500, "application/problem+json"))).isTrue();
+    assertThat(filter.accepts(getResponse(503, null))).isTrue();
+    assertThat(filter.accepts(getResponse(502, "text/html"))).isFalse();
+    assertThat(filter.accepts(getResponse(302, "application/json"))).isFalse();
+  }
+
+  @Test
+  public void testMissingContentTypeCanBeRejected() {
+    ErrorResponseFilter filter =
+        ErrorResponseFilter.jsonErrors().withMissingContentTypeAccepted(false);
+
+    assertThat(filter.accepts(getResponse(503, null))).isFalse();
+    assertThat(filter.accepts(getResponse(503, ""))).isFalse();
+  }
+
+  @Test
+  public void testWildcardSubtype() {
+    ErrorResponseFilter filter = new ErrorResponseFilter().withContentTypes("application/*");
+
+    assertThat(filter.accepts(getResponse(400, "application/vnd.error+json"))).isTrue();
+    assertThat(filter.accepts(getResponse(400, "text/plain"))).isFalse();
+  }
+
+  @Test
+  public void testMultipleStatusRanges() {
+    ErrorResponseFilter filter =
+        new ErrorResponseFilter().withStatusRange(400, 404).withStatusRange(500, 500);
+
+    assertThat(filter.accepts(getResponse(404, null))).isTrue();
+    assertThat(filter.accepts(getResponse(500, null))).isTrue();
+    assertThat(filter.accepts(getResponse(409, null))).isFalse();
+    assertThat(filter.accepts(getResponse(503, null))).isFalse();
+  }
+
+  @Test
+  public void testInvalidStatusRange() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new ErrorResponseFilter().withStatusRange(500, 400));
+  }
+
+  private static Response getResponse(int status, String contentType) {
+    Map<String, Collection<String>> headers = new HashMap<>();
+    if (contentType != null) {
+      headers.put("content-type", List.of(contentType));
+    }
+    return Response.builder()
+        .status(status)
+        .reason("")
+        .headers(headers)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+}
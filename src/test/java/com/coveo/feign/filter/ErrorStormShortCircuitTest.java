@@ -0,0 +1,136 @@
+package com.coveo.feign.filter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.metrics.DecodeOutcome;
+
+public class ErrorStormShortCircuitTest {
+  private static final String METHOD_KEY = "Api#method()";
+  private static final String OTHER_METHOD_KEY = "Api#otherMethod()";
+
+  @Test
+  public void testMethodKeyIsShortCircuitedWhenTheFailureRatioIsReached() {
+    ErrorStormShortCircuit shortCircuit =
+        new ErrorStormShortCircuit(4, 0.75, Duration.ofMinutes(1));
+
+    recordWindow(shortCircuit, METHOD_KEY, true, true, false, true);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isTrue();
+    assertThat(shortCircuit.isShortCircuited(OTHER_METHOD_KEY)).isFalse();
+    assertThat(shortCircuit.getShortCircuitedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMethodKeyIsNotShortCircuitedBelowTheFailureRatio() {
+    ErrorStormShortCircuit shortCircuit =
+        new ErrorStormShortCircuit(4, 0.75, Duration.ofMinutes(1));
+
+    recordWindow(shortCircuit, METHOD_KEY, true, false, false, true);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+  }
+
+  @Test
+  public void testMethodKeyIsNotShortCircuitedBeforeTheEndOfTheWindow() {
+    ErrorStormShortCircuit shortCircuit =
+        new ErrorStormShortCircuit(4, 0.75, Duration.ofMinutes(1));
+
+    recordWindow(shortCircuit, METHOD_KEY, true, true, true);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+  }
+
+  @Test
+  public void testSingleProbeIsLetThroughAfterTheCooldown() throws Exception {
+    ErrorStormShortCircuit shortCircuit = new ErrorStormShortCircuit(2, 1, Duration.ofMillis(100));
+    recordWindow(shortCircuit, METHOD_KEY, true, true);
+
+    Thread.sleep(101);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isTrue();
+  }
+
+  @Test
+  public void testProbeThatIsNotAServerFailureClosesTheShortCircuit() throws Exception {
+    ErrorStormShortCircuit shortCircuit = new ErrorStormShortCircuit(2, 1, Duration.ofMillis(100));
+    recordWindow(shortCircuit, METHOD_KEY, true, true);
+    Thread.sleep(101);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+    shortCircuit.record(METHOD_KEY, 404, DecodeOutcome.NO_BODY);
+
+    assertThat(shortCircuit.isOpen(METHOD_KEY)).isFalse();
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+  }
+
+  @Test
+  public void testFailedProbeKeepsTheShortCircuitOpen() throws Exception {
+    ErrorStormShortCircuit shortCircuit = new ErrorStormShortCircuit(2, 1, Duration.ofMillis(100));
+    recordWindow(shortCircuit, METHOD_KEY, true, true);
+    Thread.sleep(101);
+
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isFalse();
+    shortCircuit.record(METHOD_KEY, 503, DecodeOutcome.NO_KEY);
+
+    assertThat(shortCircuit.isOpen(METHOD_KEY)).isTrue();
+    assertThat(shortCircuit.isShortCircuited(METHOD_KEY)).isTrue();
+  }
+
+  @Test
+  public void testExpectedErrorsThatCantBeDecodedAreNotServerFailures() {
+    ErrorStormShortCircuit shortCircuit = new ErrorStormShortCircuit(2, 1, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 10; i++) {
+      shortCircuit.record(METHOD_KEY, 404, DecodeOutcome.NO_BODY);
+      shortCircuit.record(METHOD_KEY, 404, DecodeOutcome.NO_KEY);
+      shortCircuit.record(METHOD_KEY, 404, DecodeOutcome.PARSE_ERROR);
+      shortCircuit.record(METHOD_KEY, 404, DecodeOutcome.FILTERED);
+      shortCircuit.record(METHOD_KEY, 503, DecodeOutcome.NO_BODY);
+    }
+
+    assertThat(shortCircuit.isOpen(METHOD_KEY)).isFalse();
+  }
+
+  @Test
+  public void testServerFailures() {
+    assertThat(ErrorStormShortCircuit.isServerFailure(400, DecodeOutcome.IO_ERROR)).isTrue();
+    assertThat(ErrorStormShortCircuit.isServerFailure(502, DecodeOutcome.NO_KEY)).isTrue();
+    assertThat(ErrorStormShortCircuit.isServerFailure(503, DecodeOutcome.UNKNOWN_KEY)).isTrue();
+    assertThat(ErrorStormShortCircuit.isServerFailure(503, DecodeOutcome.EXCEPTION)).isFalse();
+    assertThat(ErrorStormShortCircuit.isServerFailure(503, DecodeOutcome.NO_BODY)).isFalse();
+    assertThat(ErrorStormShortCircuit.isServerFailure(502, DecodeOutcome.PARSE_ERROR)).isTrue();
+    assertThat(ErrorStormShortCircuit.isServerFailure(502, DecodeOutcome.FILTERED)).isTrue();
+    assertThat(ErrorStormShortCircuit.isServerFailure(404, DecodeOutcome.NO_KEY)).isFalse();
+    assertThat(ErrorStormShortCircuit.isServerFailure(404, DecodeOutcome.PARSE_ERROR)).isFalse();
+    assertThat(ErrorStormShortCircuit.isServerFailure(404, DecodeOutcome.FILTERED)).isFalse();
+  }
+
+  @Test
+  public void testInvalidConfigurationIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ErrorStormShortCircuit(0, 0.5, Duration.ofSeconds(1)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ErrorStormShortCircuit(10, 1.5, Duration.ofSeconds(1)));
+    assertThrows(
+        IllegalArgumentException.class, () -> new ErrorStormShortCircuit(10, 0.5, Duration.ZERO));
+  }
+
+  private static void recordWindow(
+      ErrorStormShortCircuit shortCircuit, String methodKey, boolean... failures) {
+    for (boolean failure : failures) {
+      if (failure) {
+        shortCircuit.record(methodKey, 503, DecodeOutcome.NO_KEY);
+      } else {
+        shortCircuit.record(methodKey, 400, DecodeOutcome.EXCEPTION);
+      }
+    }
+  }
+}
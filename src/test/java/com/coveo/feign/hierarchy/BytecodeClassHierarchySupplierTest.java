@@ -0,0 +1,77 @@
+package com.coveo.feign.hierarchy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.BaseServiceException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ConcreteServiceException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ConcreteSubServiceException;
+import com.google.common.truth.IterableSubject;
+import com.google.common.truth.StringSubject;
+import com.google.common.truth.Subject;
+
+public class BytecodeClassHierarchySupplierTest {
+  private static final String BASE_PACKAGE = "com.coveo.feign";
+  private static final String PACKAGE_WITHOUT_EXCEPTIONS = "com.coveo.feign.hierarchy";
+  private static final String TRUTH_PACKAGE = "com.google.common.truth";
+
+  @AfterEach
+  public void tearDown() {
+    BytecodeClassHierarchySupplier.invalidateAll();
+    CachedSpringClassHierarchySupplier.invalidateAll();
+  }
+
+  @Test
+  public void testSubClassesAreTheSameAsSpring() {
+    Set<Class<?>> subClasses =
+        new BytecodeClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+            .getSubClasses(BaseServiceException.class, BASE_PACKAGE);
+
+    assertThat(subClasses)
+        .containsAtLeast(ConcreteServiceException.class, ConcreteSubServiceException.class);
+    assertThat(subClasses)
+        .isEqualTo(
+            new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+                .getSubClasses(BaseServiceException.class, BASE_PACKAGE));
+  }
+
+  @Test
+  public void testSubClassesOfAnotherPackageAreNotScanned() {
+    assertThat(
+            new BytecodeClassHierarchySupplier(
+                    BaseServiceException.class, PACKAGE_WITHOUT_EXCEPTIONS)
+                .getSubClasses(BaseServiceException.class, PACKAGE_WITHOUT_EXCEPTIONS))
+        .isEmpty();
+  }
+
+  @Test
+  public void testSubClassesAreScannedInJars() {
+    Set<Class<?>> subClasses =
+        new BytecodeClassHierarchySupplier(Subject.class, TRUTH_PACKAGE)
+            .getSubClasses(Subject.class, TRUTH_PACKAGE);
+
+    assertThat(subClasses).containsAtLeast(IterableSubject.class, StringSubject.class);
+    assertThat(subClasses)
+        .isEqualTo(
+            new CachedSpringClassHierarchySupplier(Subject.class, TRUTH_PACKAGE)
+                .getSubClasses(Subject.class, TRUTH_PACKAGE));
+  }
+
+  @Test
+  public void testDefaultPackageScansTheDirectoriesAndJarsOfTheClassLoader() {
+    Set<Class<?>> subClasses =
+        new BytecodeClassHierarchySupplier(Subject.class, "").getSubClasses(Subject.class, "");
+
+    assertThat(subClasses).containsAtLeast(IterableSubject.class, StringSubject.class);
+    assertThat(
+            new BytecodeClassHierarchySupplier(BaseServiceException.class, "")
+                .getSubClasses(BaseServiceException.class, ""))
+        .isEqualTo(
+            new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+                .getSubClasses(BaseServiceException.class, BASE_PACKAGE));
+  }
+}
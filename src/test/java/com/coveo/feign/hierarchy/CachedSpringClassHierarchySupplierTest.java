@@ -0,0 +1,94 @@
+package com.coveo.feign.hierarchy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.BaseServiceException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ChildOfBaseNotAbstractException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ConcreteServiceException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ConcreteSubServiceException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.GrandChildOfBaseNotAbstractException;
+
+public class CachedSpringClassHierarchySupplierTest {
+  private static final String BASE_PACKAGE = "com.coveo.feign";
+  private static final String PACKAGE_WITHOUT_EXCEPTIONS = "com.coveo.feign.hierarchy";
+
+  @AfterEach
+  public void tearDown() {
+    CachedSpringClassHierarchySupplier.invalidateAll();
+  }
+
+  @Test
+  public void testSubClassesAreScannedPerBasePackage() {
+    ClassHierarchySupplier supplier =
+        new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE);
+    ClassHierarchySupplier supplierOfAnotherPackage =
+        new CachedSpringClassHierarchySupplier(
+            BaseServiceException.class, PACKAGE_WITHOUT_EXCEPTIONS);
+
+    assertThat(supplier.getSubClasses(BaseServiceException.class, BASE_PACKAGE))
+        .containsAtLeast(ConcreteServiceException.class, ConcreteSubServiceException.class);
+    assertThat(
+            supplierOfAnotherPackage.getSubClasses(
+                BaseServiceException.class, PACKAGE_WITHOUT_EXCEPTIONS))
+        .isEmpty();
+  }
+
+  @Test
+  public void testSubClassesOfAnIntermediateClass() {
+    ClassHierarchySupplier supplier =
+        new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE);
+
+    assertThat(supplier.getSubClasses(ChildOfBaseNotAbstractException.class, BASE_PACKAGE))
+        .containsExactly(
+            ChildOfBaseNotAbstractException.class, GrandChildOfBaseNotAbstractException.class);
+    assertThat(supplier.getSubClasses(String.class, BASE_PACKAGE)).isEmpty();
+  }
+
+  @Test
+  public void testConcurrentSuppliersGetTheSameSubClasses() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Set<Class<?>>>> tasks = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        tasks.add(
+            ()
+                -> new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+                    .getSubClasses(BaseServiceException.class, BASE_PACKAGE));
+      }
+      List<Future<Set<Class<?>>>> results = executor.invokeAll(tasks);
+
+      Set<Class<?>> expectedSubClasses = results.get(0).get();
+      assertThat(expectedSubClasses).isNotEmpty();
+      for (Future<Set<Class<?>>> result : results) {
+        assertThat(result.get()).isEqualTo(expectedSubClasses);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInvalidate() {
+    Set<Class<?>> subClasses =
+        new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+            .getSubClasses(BaseServiceException.class, BASE_PACKAGE);
+
+    CachedSpringClassHierarchySupplier.invalidate(BaseServiceException.class, BASE_PACKAGE);
+
+    assertThat(
+            new CachedSpringClassHierarchySupplier(BaseServiceException.class, BASE_PACKAGE)
+                .getSubClasses(BaseServiceException.class, BASE_PACKAGE))
+        .isEqualTo(subClasses);
+  }
+}
@@ -0,0 +1,48 @@
+package com.coveo.feign.hierarchy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ReflectionErrorDecoder;
+
+public class ClassFileHeaderTest {
+  @Test
+  public void testOnlyTheHeaderIsRead() throws IOException {
+    byte[] classFile = readClassFile(ReflectionErrorDecoder.class);
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(classFile);
+
+    ClassFileHeader header = ClassFileHeader.read(inputStream);
+
+    assertThat(header.getClassName()).isEqualTo(ReflectionErrorDecoder.class.getName());
+    assertThat(header.getSuperClassName()).isEqualTo(Object.class.getName());
+    assertThat(header.isAbstract()).isTrue();
+    assertThat(inputStream.available()).isGreaterThan(0);
+  }
+
+  @Test
+  public void testTruncatedClassFileIsSkipped() throws IOException {
+    byte[] classFile = readClassFile(ReflectionErrorDecoder.class);
+
+    assertThat(
+            ClassFileHeader.read(
+                new ByteArrayInputStream(Arrays.copyOf(classFile, classFile.length / 10))))
+        .isNull();
+  }
+
+  @Test
+  public void testOtherFileIsSkipped() throws IOException {
+    assertThat(ClassFileHeader.read(new ByteArrayInputStream(new byte[] {1, 2, 3}))).isNull();
+  }
+
+  private static byte[] readClassFile(Class<?> clazz) throws IOException {
+    try (InputStream inputStream = clazz.getResourceAsStream(clazz.getSimpleName() + ".class")) {
+      return inputStream.readAllBytes();
+    }
+  }
+}
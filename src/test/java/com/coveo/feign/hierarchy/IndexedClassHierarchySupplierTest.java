@@ -0,0 +1,79 @@
+package com.coveo.feign.hierarchy;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.BaseServiceException;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.ChildOfIndexedException;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.IndexedBaseException;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.IndexedException;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.NotIndexedException;
+import com.coveo.feign.hierarchy.IndexedClassHierarchySupplierTestClasses.OtherIndexedException;
+
+public class IndexedClassHierarchySupplierTest {
+  private static final String BASE_PACKAGE = "com.coveo.feign";
+
+  private IndexedClassHierarchySupplier supplier =
+      new IndexedClassHierarchySupplier(IndexedBaseException.class);
+
+  @AfterEach
+  public void tearDown() {
+    IndexedClassHierarchySupplier.invalidateAll();
+  }
+
+  @Test
+  public void testIndexIsAvailableForAnnotatedBaseClass() {
+    assertThat(IndexedClassHierarchySupplier.isIndexAvailable(IndexedBaseException.class)).isTrue();
+    assertThat(IndexedClassHierarchySupplier.isIndexAvailable(NotIndexedException.class)).isFalse();
+    assertThat(IndexedClassHierarchySupplier.isIndexAvailable(BaseServiceException.class))
+        .isFalse();
+  }
+
+  @Test
+  public void testMissingIndexIsRejected() {
+    assertThrows(
+        IllegalStateException.class,
+        () -> new IndexedClassHierarchySupplier(NotIndexedException.class));
+  }
+
+  @Test
+  public void testGetSubClasses() {
+    assertThat(supplier.getSubClasses(IndexedBaseException.class, BASE_PACKAGE))
+        .containsExactly(
+            IndexedBaseException.class,
+            IndexedException.class,
+            ChildOfIndexedException.class,
+            OtherIndexedException.class);
+  }
+
+  @Test
+  public void testGetSubClassesOfAnIntermediateClass() {
+    assertThat(supplier.getSubClasses(IndexedException.class, BASE_PACKAGE))
+        .containsExactly(IndexedException.class, ChildOfIndexedException.class);
+  }
+
+  @Test
+  public void testSameConcreteSubClassesAsSpring() {
+    assertThat(supplier.getSubClasses(IndexedException.class, BASE_PACKAGE))
+        .isEqualTo(
+            new SpringClassHierarchySupplier().getSubClasses(IndexedException.class, BASE_PACKAGE));
+  }
+
+  @Test
+  public void testSubClassesAreFilteredByBasePackage() {
+    assertThat(supplier.getSubClasses(IndexedBaseException.class, "com.coveo.feign.processor"))
+        .isEmpty();
+    assertThat(supplier.getSubClasses(IndexedBaseException.class, "")).hasSize(4);
+  }
+
+  @Test
+  public void testIndexIsReadOncePerBaseClass() {
+    assertThat(
+            new IndexedClassHierarchySupplier(IndexedBaseException.class)
+                .getSubClasses(IndexedBaseException.class, null))
+        .isSameInstanceAs(supplier.getSubClasses(IndexedBaseException.class, null));
+  }
+}
@@ -0,0 +1,29 @@
+package com.coveo.feign.hierarchy;
+
+import com.coveo.feign.annotation.IndexedExceptionHierarchy;
+
+public class IndexedClassHierarchySupplierTestClasses {
+  @IndexedExceptionHierarchy
+  public abstract static class IndexedBaseException extends Exception {
+    private static final long serialVersionUID = 1L;
+  }
+
+  public static class IndexedException extends IndexedBaseException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "indexed";
+  }
+
+  public static class ChildOfIndexedException extends IndexedException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "child of indexed";
+  }
+
+  public static class OtherIndexedException extends IndexedBaseException {
+    private static final long serialVersionUID = 1L;
+    public static final String ERROR_CODE = "other indexed";
+  }
+
+  public static class NotIndexedException extends Exception {
+    private static final long serialVersionUID = 1L;
+  }
+}
@@ -0,0 +1,27 @@
+package com.coveo.feign.hierarchy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyClassHierarchySupplierTest {
+  @Test
+  public void testDelegateIsOnlyCreatedOnceOnTheFirstCall() {
+    AtomicInteger creationCount = new AtomicInteger();
+    ClassHierarchySupplier supplier =
+        new LazyClassHierarchySupplier(
+            () -> {
+              creationCount.incrementAndGet();
+              return (clazz, basePackage) -> Set.of(clazz);
+            });
+
+    assertThat(creationCount.get()).isEqualTo(0);
+
+    assertThat(supplier.getSubClasses(Exception.class, "")).containsExactly(Exception.class);
+    assertThat(supplier.getSubClasses(Error.class, "")).containsExactly(Error.class);
+    assertThat(creationCount.get()).isEqualTo(1);
+  }
+}
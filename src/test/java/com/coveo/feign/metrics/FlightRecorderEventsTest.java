@@ -0,0 +1,117 @@
+package com.coveo.feign.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.BaseServiceException;
+import com.coveo.feign.ErrorCodeAndMessage;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithInheritedExceptions;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ServiceExceptionErrorDecoder;
+import com.coveo.feign.hierarchy.BytecodeClassHierarchySupplier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventsTest {
+  @Test
+  public void testDecodeEventIsRecorded() throws Exception {
+    ServiceExceptionErrorDecoder errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class);
+    Response response =
+        Response.builder()
+            .status(400)
+            .reason("")
+            .headers(new HashMap<>())
+            .body(
+                new ObjectMapper()
+                    .writeValueAsBytes(
+                        new ErrorCodeAndMessage()
+                            .withErrorCode(ExceptionWithEmptyConstructorException.ERROR_CODE)))
+            .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+            .build();
+
+    List<RecordedEvent> events =
+        getEvents(record(() -> errorDecoder.decode("methodKey", response)), DecodeEvent.class);
+
+    assertThat(events).hasSize(1);
+    RecordedEvent event = events.get(0);
+    assertThat(event.getClass("apiClass").getName())
+        .isEqualTo(TestApiClassWithPlainExceptions.class.getName());
+    assertThat(event.getString("methodKey")).isEqualTo("methodKey");
+    assertThat(event.getInt("status")).isEqualTo(400);
+    assertThat(event.getString("errorCode"))
+        .isEqualTo(ExceptionWithEmptyConstructorException.ERROR_CODE);
+    assertThat(event.getString("outcome")).isEqualTo(DecodeOutcome.EXCEPTION.name());
+    assertThat(event.getInt("bodySize")).isGreaterThan(0);
+  }
+
+  @Test
+  public void testInitializationAndScanEventsAreRecorded() throws Exception {
+    BytecodeClassHierarchySupplier.invalidateAll();
+
+    List<RecordedEvent> events =
+        record(
+            ()
+                -> new ServiceExceptionErrorDecoder(
+                    TestApiClassWithInheritedExceptions.class,
+                    new BytecodeClassHierarchySupplier(
+                        BaseServiceException.class, "com.coveo.feign")));
+
+    List<RecordedEvent> scanEvents = getEvents(events, ClassHierarchyScanEvent.class);
+    assertThat(scanEvents).hasSize(1);
+    assertThat(scanEvents.get(0).getString("basePackage")).isEqualTo("com.coveo.feign");
+    assertThat(scanEvents.get(0).getInt("classCount")).isGreaterThan(0);
+
+    List<RecordedEvent> initializationEvents = getEvents(events, DecoderInitializationEvent.class);
+    assertThat(initializationEvents).hasSize(1);
+    assertThat(initializationEvents.get(0).getInt("errorCodeCount")).isGreaterThan(0);
+  }
+
+  @Test
+  public void testNoEventIsAllocatedWhenNotRecorded() {
+    assertThat(FlightRecorderEvents.isAvailable()).isTrue();
+    assertThat(FlightRecorderEvents.beginDecode()).isNull();
+    assertThat(FlightRecorderEvents.beginDecoderInitialization()).isNull();
+    assertThat(FlightRecorderEvents.beginClassHierarchyScan()).isNull();
+  }
+
+  private static List<RecordedEvent> record(Runnable runnable) throws Exception {
+    Path recordingFile = Files.createTempFile("feign-error-decoder", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(DecodeEvent.class);
+      recording.enable(DecoderInitializationEvent.class);
+      recording.enable(ClassHierarchyScanEvent.class);
+      recording.start();
+      runnable.run();
+      recording.stop();
+      recording.dump(recordingFile);
+      return RecordingFile.readAllEvents(recordingFile);
+    } finally {
+      Files.delete(recordingFile);
+    }
+  }
+
+  private static List<RecordedEvent> getEvents(List<RecordedEvent> events, Class<?> eventClass) {
+    String eventName = eventClass.getAnnotation(Name.class).value();
+    return events
+        .stream()
+        .filter(event -> event.getEventType().getName().equals(eventName))
+        .collect(Collectors.toList());
+  }
+}
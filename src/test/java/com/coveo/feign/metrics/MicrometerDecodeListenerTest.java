@@ -0,0 +1,117 @@
+package com.coveo.feign.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.coveo.feign.ErrorCodeAndMessage;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.ExceptionWithEmptyConstructorException;
+import com.coveo.feign.ReflectionErrorDecoderTestClasses.TestApiClassWithPlainExceptions;
+import com.coveo.feign.ServiceExceptionErrorDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MicrometerDecodeListenerTest {
+  private static final String API = TestApiClassWithPlainExceptions.class.getName();
+
+  private SimpleMeterRegistry meterRegistry;
+  private ServiceExceptionErrorDecoder errorDecoder;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    errorDecoder =
+        new ServiceExceptionErrorDecoder(TestApiClassWithPlainExceptions.class) {
+          {
+            setDecodeListener(new MicrometerDecodeListener(meterRegistry));
+          }
+        };
+  }
+
+  @Test
+  public void testDecodedExceptionsAreCountedPerErrorCode() throws Exception {
+    Response response = getResponse(ExceptionWithEmptyConstructorException.ERROR_CODE);
+
+    errorDecoder.decode("", response);
+    errorDecoder.decode("", response);
+
+    assertThat(
+            meterRegistry
+                .get(MicrometerDecodeListener.DECODES)
+                .tag(MicrometerDecodeListener.API_TAG, API)
+                .tag(MicrometerDecodeListener.OUTCOME_TAG, DecodeOutcome.EXCEPTION.name())
+                .tag(
+                    MicrometerDecodeListener.ERROR_CODE_TAG,
+                    ExceptionWithEmptyConstructorException.ERROR_CODE)
+                .counter()
+                .count())
+        .isEqualTo(2.0);
+    assertThat(
+            meterRegistry
+                .get(MicrometerDecodeListener.DURATION)
+                .tag(MicrometerDecodeListener.OUTCOME_TAG, DecodeOutcome.EXCEPTION.name())
+                .timer()
+                .count())
+        .isEqualTo(2);
+    assertThat(meterRegistry.get(MicrometerDecodeListener.BODY_SIZE).summary().count())
+        .isEqualTo(2);
+  }
+
+  @Test
+  public void testUnknownKeysAreNotTagged() throws Exception {
+    errorDecoder.decode("", getResponse(UUID.randomUUID().toString()));
+
+    assertThat(
+            meterRegistry
+                .get(MicrometerDecodeListener.DECODES)
+                .tag(MicrometerDecodeListener.OUTCOME_TAG, DecodeOutcome.UNKNOWN_KEY.name())
+                .tag(
+                    MicrometerDecodeListener.ERROR_CODE_TAG, MicrometerDecodeListener.NO_ERROR_CODE)
+                .counter()
+                .count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  public void testResponsesWithoutBodyAreCounted() {
+    errorDecoder.decode("", getResponse(null));
+
+    assertThat(
+            meterRegistry
+                .get(MicrometerDecodeListener.DECODES)
+                .tag(MicrometerDecodeListener.OUTCOME_TAG, DecodeOutcome.NO_BODY.name())
+                .counter()
+                .count())
+        .isEqualTo(1.0);
+    assertThat(meterRegistry.find(MicrometerDecodeListener.BODY_SIZE).summary()).isNull();
+  }
+
+  private static Response getResponse(String errorCode) {
+    byte[] body = null;
+    if (errorCode != null) {
+      try {
+        body =
+            new ObjectMapper()
+                .writeValueAsBytes(new ErrorCodeAndMessage().withErrorCode(errorCode));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(body)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build();
+  }
+}
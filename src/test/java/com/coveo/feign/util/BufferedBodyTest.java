@@ -0,0 +1,80 @@
+package com.coveo.feign.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+
+import feign.Request;
+import feign.Request.Body;
+import feign.Request.HttpMethod;
+import feign.Response;
+
+public class BufferedBodyTest {
+  private static final int LARGER_THAN_POOLED_BUFFER = 20 * 1024;
+
+  @Test
+  public void testReadWholeBody() throws Exception {
+    BufferedBody bufferedBody = BufferedBody.read(getBody("some body"), Integer.MAX_VALUE);
+
+    assertThat(new String(bufferedBody.getData(), StandardCharsets.UTF_8)).isEqualTo("some body");
+    assertThat(bufferedBody.isTruncated()).isFalse();
+  }
+
+  @Test
+  public void testReadBodyLargerThanThePooledBuffer() throws Exception {
+    String body = "a".repeat(LARGER_THAN_POOLED_BUFFER);
+
+    BufferedBody bufferedBody = BufferedBody.read(getBody(body), Integer.MAX_VALUE);
+
+    assertThat(new String(bufferedBody.getData(), StandardCharsets.UTF_8)).isEqualTo(body);
+    assertThat(bufferedBody.isTruncated()).isFalse();
+  }
+
+  @Test
+  public void testReadBodyOfExactlyTheMaxSize() throws Exception {
+    BufferedBody bufferedBody = BufferedBody.read(getBody("some body"), 9);
+
+    assertThat(bufferedBody.getData()).hasLength(9);
+    assertThat(bufferedBody.isTruncated()).isFalse();
+  }
+
+  @Test
+  public void testBodyLargerThanTheMaxSizeIsTruncated() throws Exception {
+    BufferedBody bufferedBody = BufferedBody.read(getBody("some body"), 4);
+
+    assertThat(new String(bufferedBody.getData(), StandardCharsets.UTF_8)).isEqualTo("some");
+    assertThat(bufferedBody.isTruncated()).isTrue();
+  }
+
+  @Test
+  public void testLargeBodyIsTruncatedPastThePooledBuffer() throws Exception {
+    BufferedBody bufferedBody =
+        BufferedBody.read(
+            getBody("a".repeat(LARGER_THAN_POOLED_BUFFER)), LARGER_THAN_POOLED_BUFFER - 1);
+
+    assertThat(bufferedBody.getData()).hasLength(LARGER_THAN_POOLED_BUFFER - 1);
+    assertThat(bufferedBody.isTruncated()).isTrue();
+  }
+
+  @Test
+  public void testEmptyBody() throws Exception {
+    BufferedBody bufferedBody = BufferedBody.read(getBody(""), 0);
+
+    assertThat(bufferedBody.getData()).isEmpty();
+    assertThat(bufferedBody.isTruncated()).isFalse();
+  }
+
+  private static Response.Body getBody(String body) {
+    return Response.builder()
+        .status(400)
+        .reason("")
+        .headers(new HashMap<>())
+        .body(body, StandardCharsets.UTF_8)
+        .request(Request.create(HttpMethod.GET, "", new HashMap<>(), Body.empty(), null))
+        .build()
+        .body();
+  }
+}